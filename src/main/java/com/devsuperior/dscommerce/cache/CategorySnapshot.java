@@ -0,0 +1,63 @@
+package com.devsuperior.dscommerce.cache;
+
+import com.devsuperior.dscommerce.dto.CategoryDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+// Categorias con su JSON ya codificado, plano y en gzip; los arreglos se comparten entre requests y no se modifican
+public final class CategorySnapshot {
+
+    private final List<CategoryDTO> categories;
+    private final byte[] json;
+    private final byte[] gzip;
+    private final String eTag;
+    private final String gzipETag;
+
+    private CategorySnapshot(List<CategoryDTO> categories, byte[] json, byte[] gzip, String hash) {
+        this.categories = categories;
+        this.json = json;
+        this.gzip = gzip;
+        this.eTag = "\"" + hash + "\"";
+        this.gzipETag = "\"" + hash + "-gzip\"";
+    }
+
+    public static CategorySnapshot of(List<CategoryDTO> categories, ObjectMapper objectMapper) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(categories);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(json);
+            }
+            return new CategorySnapshot(List.copyOf(categories), json, out.toByteArray(), DigestUtils.md5DigestAsHex(json));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<CategoryDTO> getCategories() {
+        return categories;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public String getGzipETag() {
+        return gzipETag;
+    }
+}
@@ -0,0 +1,151 @@
+package com.devsuperior.dscommerce.cache;
+
+import com.devsuperior.dscommerce.dto.CacheStatsDTO;
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.dto.OrderItemDTO;
+import com.devsuperior.dscommerce.services.exceptions.BadRequestException;
+import com.devsuperior.dscommerce.services.exceptions.InvalidDataException;
+import com.devsuperior.dscommerce.services.exceptions.ServiceUnavailableException;
+import com.devsuperior.dscommerce.utils.CustomUserUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+// Recuerda por usuario y Idempotency-Key la huella del pedido y su resultado; los reintentos reciben la misma orden.
+// Los pedidos en curso quedan fuera de la cache: el desalojo por tamanio nunca puede soltar una clave en uso
+@Component
+public class OrderIdempotencyCache {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private CustomUserUtil customUserUtil;
+
+    private final Cache<String, Entry> cache;
+    private final Map<String, Entry> inFlight = new ConcurrentHashMap<>();
+    private final Semaphore inFlightPermits;
+
+    @Autowired
+    public OrderIdempotencyCache(@Value("${cache.idempotency.max-size}") Long maxSize,
+                                 @Value("${cache.idempotency.duration}") Long durationSeconds,
+                                 @Value("${cache.idempotency.max-in-flight}") Integer maxInFlight) {
+        this(maxSize, durationSeconds, maxInFlight, Ticker.systemTicker());
+    }
+
+    OrderIdempotencyCache(Long maxSize, Long durationSeconds, Integer maxInFlight, Ticker ticker) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(durationSeconds))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        inFlightPermits = new Semaphore(maxInFlight);
+    }
+
+    public OrderDTO execute(String key, OrderDTO request, Supplier<OrderDTO> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key invalida");
+        }
+        String scopedKey = customUserUtil.getLoggedUsername() + "\n" + key;
+        Entry entry = new Entry(fingerprint(request));
+
+        Entry completed = cache.getIfPresent(scopedKey);
+        if (completed != null) {
+            return replay(completed, entry);
+        }
+
+        if (!inFlightPermits.tryAcquire()) {
+            throw new ServiceUnavailableException("Demasiados pedidos con Idempotency-Key en curso");
+        }
+        try {
+            Entry existing = inFlight.putIfAbsent(scopedKey, entry);
+            if (existing != null) {
+                // Un duplicado concurrente espera el resultado del pedido en curso
+                return replay(existing, entry);
+            }
+            // El dueno anterior guarda en la cache antes de salir de inFlight: si termino recien, aca se ve
+            completed = cache.getIfPresent(scopedKey);
+            if (completed != null) {
+                inFlight.remove(scopedKey, entry);
+                return replay(completed, entry);
+            }
+            return run(scopedKey, entry, action);
+        }
+        finally {
+            inFlightPermits.release();
+        }
+    }
+
+    public CacheStatsDTO getStats() {
+        return new CacheStatsDTO("order-idempotency", cache);
+    }
+
+    private OrderDTO run(String scopedKey, Entry entry, Supplier<OrderDTO> action) {
+        try {
+            OrderDTO result = action.get();
+            entry.result.complete(result);
+            cache.put(scopedKey, entry);
+            return result;
+        }
+        catch (RuntimeException e) {
+            // Si el pedido fallo, la clave se libera para que el cliente pueda reintentar
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            inFlight.remove(scopedKey, entry);
+        }
+    }
+
+    private static OrderDTO replay(Entry existing, Entry entry) {
+        if (!existing.fingerprint.equals(entry.fingerprint)) {
+            InvalidDataException exception = new InvalidDataException("Datos invalidos");
+            exception.addError("Idempotency-Key", "La clave ya fue usada con otro pedido");
+            throw exception;
+        }
+        return await(existing.result);
+    }
+
+    private static OrderDTO await(CompletableFuture<OrderDTO> result) {
+        try {
+            return result.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static String fingerprint(OrderDTO request) {
+        StringBuilder content = new StringBuilder();
+        for (OrderItemDTO item : request.getItems()) {
+            content.append(item.getProductId()).append(':').append(item.getQuantity()).append('\n');
+        }
+        return DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class Entry {
+
+        private final String fingerprint;
+        private final CompletableFuture<OrderDTO> result = new CompletableFuture<>();
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
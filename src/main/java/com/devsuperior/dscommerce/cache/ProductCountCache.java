@@ -0,0 +1,47 @@
+package com.devsuperior.dscommerce.cache;
+
+import com.devsuperior.dscommerce.dto.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.Function;
+
+// Total de productos por termino de busqueda; la consulta es insensible a mayusculas, asi que la clave tambien
+@Component
+public class ProductCountCache {
+
+    private final Cache<String, Long> cache;
+
+    public ProductCountCache(@Value("${cache.product-count.max-size}") Long maxSize,
+                             @Value("${cache.product-count.duration}") Long durationSeconds) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(durationSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public long get(String term, Function<String, Long> loader) {
+        return cache.get(normalize(term), loader);
+    }
+
+    public Long getIfPresent(String term) {
+        return cache.getIfPresent(normalize(term));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStatsDTO getStats() {
+        return new CacheStatsDTO("product-counts", cache);
+    }
+
+    private static String normalize(String term) {
+        return term == null ? "" : term.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,46 @@
+package com.devsuperior.dscommerce.cache;
+
+import com.devsuperior.dscommerce.dto.CacheStatsDTO;
+import com.devsuperior.dscommerce.dto.ProductDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+@Component
+public class ProductDetailCache {
+
+    private final Cache<Long, ProductDTO> cache;
+
+    public ProductDetailCache(@Value("${cache.product.max-size}") Long maxSize,
+                              @Value("${cache.product.duration}") Long durationSeconds) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(durationSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public ProductDTO get(Long id, Function<Long, ProductDTO> loader) {
+        return cache.get(id, loader);
+    }
+
+    public ProductDTO getIfPresent(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStatsDTO getStats() {
+        return new CacheStatsDTO("products", cache);
+    }
+}
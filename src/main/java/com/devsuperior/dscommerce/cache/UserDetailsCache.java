@@ -0,0 +1,44 @@
+package com.devsuperior.dscommerce.cache;
+
+import com.devsuperior.dscommerce.dto.CacheStatsDTO;
+import com.devsuperior.dscommerce.projections.UserDetailsProjection;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+// Usuario y roles por email para el login; logins simultaneos del mismo email comparten una sola consulta
+@Component
+public class UserDetailsCache {
+
+    private final Cache<String, List<UserDetailsProjection>> cache;
+
+    public UserDetailsCache(@Value("${cache.user-details.max-size}") Long maxSize,
+                            @Value("${cache.user-details.duration}") Long durationSeconds) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(durationSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public List<UserDetailsProjection> get(String email, Function<String, List<UserDetailsProjection>> loader) {
+        return cache.get(email, key -> List.copyOf(loader.apply(key)));
+    }
+
+    public void evict(String email) {
+        cache.invalidate(email);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStatsDTO getStats() {
+        return new CacheStatsDTO("user-details", cache);
+    }
+}
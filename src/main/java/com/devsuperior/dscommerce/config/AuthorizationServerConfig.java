@@ -1,21 +1,23 @@
 package com.devsuperior.dscommerce.config;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Duration;
 import java.util.List;
-import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
@@ -23,7 +25,7 @@ import org.springframework.security.oauth2.core.OAuth2Token;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationConsentService;
-import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
@@ -32,6 +34,7 @@ import org.springframework.security.oauth2.server.authorization.client.Registere
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configuration.OAuth2AuthorizationServerConfiguration;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configurers.OAuth2AuthorizationServerConfigurer;
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module;
 import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
 import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
 import org.springframework.security.oauth2.server.authorization.settings.OAuth2TokenFormat;
@@ -43,12 +46,15 @@ import org.springframework.security.oauth2.server.authorization.token.OAuth2Acce
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenCustomizer;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenGenerator;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.StringUtils;
 
+import com.devsuperior.dscommerce.config.authorization.AuthorizationJackson2Module;
+import com.devsuperior.dscommerce.config.authorization.CaffeineOAuth2AuthorizationService;
+import com.devsuperior.dscommerce.config.authorization.JwtSigningKeys;
 import com.devsuperior.dscommerce.config.customgrant.CustomPasswordAuthenticationConverter;
 import com.devsuperior.dscommerce.config.customgrant.CustomPasswordAuthenticationProvider;
 import com.devsuperior.dscommerce.config.customgrant.CustomUserAuthorities;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 
@@ -64,9 +70,39 @@ public class AuthorizationServerConfig {
 	@Value("${security.jwt.duration}")
 	private Integer jwtDurationSeconds;
 
+	@Value("${security.jwt.algorithm}")
+	private String jwtAlgorithm;
+
+	@Value("${security.jwt.keystore.location}")
+	private String keyStoreLocation;
+
+	@Value("${security.jwt.keystore.type}")
+	private String keyStoreType;
+
+	@Value("${security.jwt.keystore.password}")
+	private String keyStorePassword;
+
+	@Value("${security.jwt.keystore.active-alias}")
+	private String keyStoreActiveAlias;
+
+	@Value("${security.authorization-store.type}")
+	private String authorizationStoreType;
+
+	@Value("${security.authorization-store.max-size}")
+	private Long authorizationStoreMaxSize;
+
+	@Value("${security.authorization-store.schema}")
+	private String authorizationStoreSchema;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
 	@Autowired
 	private UserDetailsService userDetailsService;
 
+	@Autowired
+	private ResourceLoader resourceLoader;
+
 	@Bean
 	@Order(2)
 	public SecurityFilterChain asSecurityFilterChain(HttpSecurity http) throws Exception {
@@ -85,9 +121,38 @@ public class AuthorizationServerConfig {
 		return http.build();
 	}
 
+	// Cada login guarda una autorizacion: en memoria quedan acotadas y vencen junto con el token;
+	// con varios nodos se comparten en la base (tabla oauth2_authorization) y JdbcAuthorizationSweeper borra las vencidas
 	@Bean
 	public OAuth2AuthorizationService authorizationService() {
-		return new InMemoryOAuth2AuthorizationService();
+		if ("jdbc".equals(authorizationStoreType)) {
+			return jdbcAuthorizationService();
+		}
+		return new CaffeineOAuth2AuthorizationService(authorizationStoreMaxSize, Duration.ofSeconds(jwtDurationSeconds));
+	}
+
+	// La tabla tiene que existir antes de crear el servicio, que lee los tipos de sus columnas al construirse
+	private JdbcOAuth2AuthorizationService jdbcAuthorizationService() {
+		if (StringUtils.hasText(authorizationStoreSchema)) {
+			new ResourceDatabasePopulator(resourceLoader.getResource(authorizationStoreSchema)).execute(jdbcTemplate.getDataSource());
+		}
+
+		ObjectMapper objectMapper = new ObjectMapper();
+		objectMapper.registerModules(SecurityJackson2Modules.getModules(JdbcOAuth2AuthorizationService.class.getClassLoader()));
+		objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module());
+		objectMapper.registerModule(new AuthorizationJackson2Module());
+
+		JdbcOAuth2AuthorizationService.OAuth2AuthorizationRowMapper rowMapper =
+				new JdbcOAuth2AuthorizationService.OAuth2AuthorizationRowMapper(registeredClientRepository());
+		rowMapper.setObjectMapper(objectMapper);
+		JdbcOAuth2AuthorizationService.OAuth2AuthorizationParametersMapper parametersMapper =
+				new JdbcOAuth2AuthorizationService.OAuth2AuthorizationParametersMapper();
+		parametersMapper.setObjectMapper(objectMapper);
+
+		JdbcOAuth2AuthorizationService service = new JdbcOAuth2AuthorizationService(jdbcTemplate, registeredClientRepository());
+		service.setAuthorizationRowMapper(rowMapper);
+		service.setAuthorizationParametersMapper(parametersMapper);
+		return service;
 	}
 
 	@Bean
@@ -104,7 +169,8 @@ public class AuthorizationServerConfig {
 	public RegisteredClientRepository registeredClientRepository() {
 		// @formatter:off
 		RegisteredClient registeredClient = RegisteredClient
-			.withId(UUID.randomUUID().toString())
+			// Id estable: las autorizaciones guardadas en la base referencian al cliente por id entre reinicios y nodos
+			.withId(clientId)
 			.clientId(clientId)
 			.clientSecret(passwordEncoder().encode(clientSecret))
 			.scope("read")
@@ -140,7 +206,7 @@ public class AuthorizationServerConfig {
 
 	@Bean
 	public OAuth2TokenGenerator<? extends OAuth2Token> tokenGenerator() {
-		NimbusJwtEncoder jwtEncoder = new NimbusJwtEncoder(jwkSource());
+		NimbusJwtEncoder jwtEncoder = new NimbusJwtEncoder(jwkSource().signingSource());
 		JwtGenerator jwtGenerator = new JwtGenerator(jwtEncoder);
 		jwtGenerator.setJwtCustomizer(tokenCustomizer());
 		OAuth2AccessTokenGenerator accessTokenGenerator = new OAuth2AccessTokenGenerator();
@@ -149,15 +215,19 @@ public class AuthorizationServerConfig {
 
 	@Bean
 	public OAuth2TokenCustomizer<JwtEncodingContext> tokenCustomizer() {
+		JwtSigningKeys signingKeys = jwkSource();
 		return context -> {
 			OAuth2ClientAuthenticationToken principal = context.getPrincipal();
 			CustomUserAuthorities user = (CustomUserAuthorities) principal.getDetails();
-			List<String> authorities = user.getAuthorities().stream().map(x -> x.getAuthority()).toList();
+			// ArrayList y no toList(): los claims se guardan con la autorizacion y el store jdbc solo relee tipos permitidos
+			List<String> authorities = user.getAuthorities().stream().map(x -> x.getAuthority()).collect(Collectors.toList());
+			context.getJwsHeader().algorithm(signingKeys.getAlgorithm()).keyId(signingKeys.getKeyId());
 			if (context.getTokenType().getValue().equals("access_token")) {
 				// @formatter:off
 				context.getClaims()
 					.claim("authorities", authorities)
-					.claim("username", user.getUsername());
+					.claim("username", user.getUsername())
+					.claim("userId", user.getUserId());
 				// @formatter:on
 			}
 		};
@@ -168,29 +238,18 @@ public class AuthorizationServerConfig {
 		return OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource);
 	}
 
+	// Con keystore todos los nodos firman con la misma clave y la rotacion no invalida los tokens emitidos;
+	// sin keystore se genera una clave por arranque, como antes
 	@Bean
-	public JWKSource<SecurityContext> jwkSource() {
-		RSAKey rsaKey = generateRsa();
-		JWKSet jwkSet = new JWKSet(rsaKey);
-		return (jwkSelector, securityContext) -> jwkSelector.select(jwkSet);
-	}
-
-	private static RSAKey generateRsa() {
-		KeyPair keyPair = generateRsaKey();
-		RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
-		RSAPrivateKey privateKey = (RSAPrivateKey) keyPair.getPrivate();
-		return new RSAKey.Builder(publicKey).privateKey(privateKey).keyID(UUID.randomUUID().toString()).build();
-	}
-
-	private static KeyPair generateRsaKey() {
-		KeyPair keyPair;
+	public JwtSigningKeys jwkSource() {
+		if (!StringUtils.hasText(keyStoreLocation)) {
+			return JwtSigningKeys.generate(jwtAlgorithm);
+		}
 		try {
-			KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-			keyPairGenerator.initialize(2048);
-			keyPair = keyPairGenerator.generateKeyPair();
-		} catch (Exception ex) {
-			throw new IllegalStateException(ex);
+			InputStream keyStore = resourceLoader.getResource(keyStoreLocation).getInputStream();
+			return JwtSigningKeys.load(keyStore, keyStoreType, keyStorePassword, keyStoreActiveAlias);
+		} catch (IOException ex) {
+			throw new IllegalStateException("No se pudo abrir el keystore de claves JWT: " + keyStoreLocation, ex);
 		}
-		return keyPair;
 	}
 }
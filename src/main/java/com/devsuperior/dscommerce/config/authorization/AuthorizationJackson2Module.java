@@ -0,0 +1,53 @@
+package com.devsuperior.dscommerce.config.authorization;
+
+import com.devsuperior.dscommerce.config.customgrant.CustomUserAuthorities;
+import com.devsuperior.dscommerce.entities.Role;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+// JdbcOAuth2AuthorizationService guarda los atributos de cada autorizacion como JSON con tipos y solo lee
+// clases de su lista permitida o con mixin: el usuario del login viaja con CustomUserAuthorities y sus Role,
+// y el claim userId del token queda como Long en los metadatos del access token
+public class AuthorizationJackson2Module extends SimpleModule {
+
+    public AuthorizationJackson2Module() {
+        super(AuthorizationJackson2Module.class.getName());
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        context.setMixInAnnotations(Role.class, RoleMixin.class);
+        context.setMixInAnnotations(CustomUserAuthorities.class, CustomUserAuthoritiesMixin.class);
+        context.setMixInAnnotations(Long.class, LongMixin.class);
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS)
+    abstract static class LongMixin {
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS)
+    @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY, getterVisibility = JsonAutoDetect.Visibility.NONE,
+            isGetterVisibility = JsonAutoDetect.Visibility.NONE)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    abstract static class RoleMixin {
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS)
+    @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY, getterVisibility = JsonAutoDetect.Visibility.NONE,
+            isGetterVisibility = JsonAutoDetect.Visibility.NONE)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    abstract static class CustomUserAuthoritiesMixin {
+
+        @JsonCreator
+        CustomUserAuthoritiesMixin(@JsonProperty("userId") Long userId, @JsonProperty("username") String username,
+                                   @JsonProperty("authorities") Collection<? extends GrantedAuthority> authorities) {
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.devsuperior.dscommerce.config.authorization;
+
+import com.devsuperior.dscommerce.dto.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reemplazo acotado de InMemoryOAuth2AuthorizationService: cada autorizacion vive lo mismo que su access token
+// y, ademas del indice por id, hay uno por valor de token para no recorrer todo en findByToken
+public class CaffeineOAuth2AuthorizationService implements OAuth2AuthorizationService {
+
+    private static final OAuth2TokenType STATE_TOKEN_TYPE = new OAuth2TokenType(OAuth2ParameterNames.STATE);
+
+    private final Cache<String, OAuth2Authorization> authorizations;
+    private final Cache<String, String> idsByToken;
+
+    public CaffeineOAuth2AuthorizationService(long maxSize, Duration timeToLive) {
+        this(maxSize, timeToLive, Ticker.systemTicker());
+    }
+
+    CaffeineOAuth2AuthorizationService(long maxSize, Duration timeToLive, Ticker ticker) {
+        idsByToken = Caffeine.newBuilder()
+                .maximumSize(maxSize * 2)
+                .expireAfterWrite(timeToLive)
+                .ticker(ticker)
+                .build();
+        authorizations = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(timeToLive)
+                .ticker(ticker)
+                .recordStats()
+                .<String, OAuth2Authorization>removalListener((id, authorization, cause) -> {
+                    if (authorization != null && cause != RemovalCause.REPLACED) {
+                        idsByToken.invalidateAll(tokenValues(authorization));
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        authorizations.put(authorization.getId(), authorization);
+        for (String token : tokenValues(authorization)) {
+            idsByToken.put(token, authorization.getId());
+        }
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        authorizations.invalidate(authorization.getId());
+    }
+
+    @Override
+    public OAuth2Authorization findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+        return authorizations.getIfPresent(id);
+    }
+
+    @Override
+    public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+        Assert.hasText(token, "token cannot be empty");
+        String id = idsByToken.getIfPresent(token);
+        OAuth2Authorization authorization = id == null ? null : authorizations.getIfPresent(id);
+        return authorization != null && hasToken(authorization, token, tokenType) ? authorization : null;
+    }
+
+    public CacheStatsDTO getStats() {
+        return new CacheStatsDTO("oauth2-authorizations", authorizations);
+    }
+
+    void cleanUp() {
+        authorizations.cleanUp();
+        idsByToken.cleanUp();
+    }
+
+    private static List<String> tokenValues(OAuth2Authorization authorization) {
+        List<String> result = new ArrayList<>(3);
+        String state = authorization.getAttribute(OAuth2ParameterNames.STATE);
+        if (state != null) {
+            result.add(state);
+        }
+        if (authorization.getAccessToken() != null) {
+            result.add(authorization.getAccessToken().getToken().getTokenValue());
+        }
+        if (authorization.getRefreshToken() != null) {
+            result.add(authorization.getRefreshToken().getToken().getTokenValue());
+        }
+        return result;
+    }
+
+    private static boolean hasToken(OAuth2Authorization authorization, String token, OAuth2TokenType tokenType) {
+        if (tokenType == null) {
+            return tokenValues(authorization).contains(token) || authorization.getToken(token) != null;
+        }
+        if (STATE_TOKEN_TYPE.equals(tokenType)) {
+            return token.equals(authorization.getAttribute(OAuth2ParameterNames.STATE));
+        }
+        if (OAuth2TokenType.ACCESS_TOKEN.equals(tokenType)) {
+            return authorization.getAccessToken() != null
+                    && token.equals(authorization.getAccessToken().getToken().getTokenValue());
+        }
+        if (OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+            return authorization.getRefreshToken() != null
+                    && token.equals(authorization.getRefreshToken().getToken().getTokenValue());
+        }
+        return authorization.getToken(token) != null;
+    }
+}
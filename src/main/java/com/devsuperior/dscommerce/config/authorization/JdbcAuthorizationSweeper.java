@@ -0,0 +1,56 @@
+package com.devsuperior.dscommerce.config.authorization;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+// JdbcOAuth2AuthorizationService no borra nada; se eliminan las autorizaciones vencidas de a lotes
+// para no tomar un bloqueo largo sobre la tabla compartida entre nodos
+@Component
+@ConditionalOnProperty(name = "security.authorization-store.type", havingValue = "jdbc")
+public class JdbcAuthorizationSweeper {
+
+    private static final String EXPIRED = "access_token_expires_at < ? "
+            + "AND (refresh_token_expires_at IS NULL OR refresh_token_expires_at < ?)";
+
+    // Sin LIMIT/FETCH FIRST ni subconsulta sobre la misma tabla, que MySQL y MariaDB rechazan:
+    // el tope del lote lo pone maxRows del driver
+    private static final String SELECT_EXPIRED = "SELECT id FROM oauth2_authorization WHERE " + EXPIRED;
+
+    // Se repite la condicion: un refresh entre el SELECT y el DELETE extiende el vencimiento de la misma fila
+    private static final String DELETE_EXPIRED = "DELETE FROM oauth2_authorization WHERE id = ? AND " + EXPIRED;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${security.authorization-store.sweep-batch-size}")
+    private Integer batchSize;
+
+    private JdbcTemplate selectTemplate;
+
+    @PostConstruct
+    void init() {
+        selectTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        selectTemplate.setMaxRows(batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${security.authorization-store.sweep-interval}")
+    public void sweep() {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<String> ids;
+        do {
+            ids = selectTemplate.queryForList(SELECT_EXPIRED, String.class, now, now);
+            if (!ids.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_EXPIRED, ids.stream().map(id -> new Object[] {id, now, now}).toList());
+            }
+        } while (ids.size() == batchSize);
+    }
+}
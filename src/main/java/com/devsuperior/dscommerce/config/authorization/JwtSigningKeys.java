@@ -0,0 +1,179 @@
+package com.devsuperior.dscommerce.config.authorization;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+// Claves de firma de los JWT. La clave activa firma; el resto del keystore (claves retiradas o de otros nodos)
+// solo verifica y se publica hasta que vence su certificado, para que los tokens ya emitidos sigan siendo validos
+public class JwtSigningKeys implements JWKSource<SecurityContext> {
+
+    private final JWK signingKey;
+    private final SignatureAlgorithm algorithm;
+    private final List<JWK> keys;
+    private final Clock clock;
+
+    private volatile JWKSet current;
+    private volatile Instant nextExpiration;
+
+    JwtSigningKeys(JWK signingKey, List<JWK> keys, Clock clock) {
+        this.signingKey = signingKey;
+        this.algorithm = algorithmOf(signingKey);
+        this.keys = List.copyOf(keys);
+        this.clock = clock;
+        refresh(clock.instant());
+    }
+
+    // Sin keystore: clave efimera, cada nodo firma con la suya y los tokens no sobreviven un reinicio
+    public static JwtSigningKeys generate(String algorithm) {
+        try {
+            JWK key = switch (algorithm) {
+                case "RS256" -> new RSAKeyGenerator(2048).keyID(UUID.randomUUID().toString()).generate();
+                case "ES256" -> new ECKeyGenerator(Curve.P_256).keyID(UUID.randomUUID().toString()).generate();
+                default -> throw new IllegalStateException("Algoritmo de firma no soportado: " + algorithm);
+            };
+            return new JwtSigningKeys(key, List.of(key), Clock.systemUTC());
+        }
+        catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static JwtSigningKeys load(InputStream keyStore, String type, String password, String activeAlias) {
+        return load(keyStore, type, password, activeAlias, Clock.systemUTC());
+    }
+
+    static JwtSigningKeys load(InputStream keyStore, String type, String password, String activeAlias, Clock clock) {
+        List<JWK> keys = new ArrayList<>();
+        try (keyStore) {
+            KeyStore store = KeyStore.getInstance(type);
+            store.load(keyStore, password.toCharArray());
+            for (String alias : Collections.list(store.aliases())) {
+                JWK key = toJwk(store, alias, password);
+                if (key != null) {
+                    keys.add(key);
+                }
+            }
+        }
+        catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo leer el keystore de claves JWT", e);
+        }
+
+        JWK signingKey = keys.stream()
+                .filter(key -> key.getKeyID().equals(activeAlias))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Clave JWT activa no encontrada: " + activeAlias));
+        if (!signingKey.isPrivate()) {
+            throw new IllegalStateException("La clave JWT activa no tiene clave privada: " + activeAlias);
+        }
+        return new JwtSigningKeys(signingKey, keys, clock);
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public String getKeyId() {
+        return signingKey.getKeyID();
+    }
+
+    // Fuente del encoder: solo la clave activa, asi la seleccion por algoritmo nunca es ambigua
+    public JWKSource<SecurityContext> signingSource() {
+        return new ImmutableJWKSet<>(new JWKSet(signingKey));
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        Instant now = clock.instant();
+        if (nextExpiration != null && !now.isBefore(nextExpiration)) {
+            refresh(now);
+        }
+        return jwkSelector.select(current);
+    }
+
+    private synchronized void refresh(Instant now) {
+        List<JWK> valid = new ArrayList<>();
+        Instant next = null;
+        for (JWK key : keys) {
+            Instant expiration = expirationOf(key);
+            if (key == signingKey || expiration == null) {
+                valid.add(key);
+            }
+            else if (now.isBefore(expiration)) {
+                valid.add(key);
+                next = next == null || expiration.isBefore(next) ? expiration : next;
+            }
+        }
+        current = new JWKSet(valid);
+        nextExpiration = next;
+    }
+
+    // El kid de cada clave es su alias en el keystore y su vencimiento el del certificado
+    private static JWK toJwk(KeyStore store, String alias, String password) throws GeneralSecurityException {
+        if (!(store.getCertificate(alias) instanceof X509Certificate certificate)) {
+            return null;
+        }
+        PrivateKey privateKey = store.isKeyEntry(alias) ? (PrivateKey) store.getKey(alias, password.toCharArray()) : null;
+        if (certificate.getPublicKey() instanceof RSAPublicKey publicKey) {
+            return new RSAKey.Builder(publicKey)
+                    .privateKey(privateKey)
+                    .keyID(alias)
+                    .expirationTime(certificate.getNotAfter())
+                    .build();
+        }
+        if (certificate.getPublicKey() instanceof ECPublicKey publicKey) {
+            return new ECKey.Builder(Curve.forECParameterSpec(publicKey.getParams()), publicKey)
+                    .privateKey(privateKey)
+                    .keyID(alias)
+                    .expirationTime(certificate.getNotAfter())
+                    .build();
+        }
+        return null;
+    }
+
+    private static Instant expirationOf(JWK key) {
+        return key.getExpirationTime() == null ? null : key.getExpirationTime().toInstant();
+    }
+
+    private static SignatureAlgorithm algorithmOf(JWK key) {
+        if (key instanceof RSAKey) {
+            return SignatureAlgorithm.RS256;
+        }
+        Curve curve = ((ECKey) key).getCurve();
+        if (Curve.P_256.equals(curve)) {
+            return SignatureAlgorithm.ES256;
+        }
+        if (Curve.P_384.equals(curve)) {
+            return SignatureAlgorithm.ES384;
+        }
+        if (Curve.P_521.equals(curve)) {
+            return SignatureAlgorithm.ES512;
+        }
+        throw new IllegalStateException("Curva no soportada para la clave JWT: " + curve);
+    }
+}
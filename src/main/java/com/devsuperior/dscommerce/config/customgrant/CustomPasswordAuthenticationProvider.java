@@ -1,19 +1,18 @@
 package com.devsuperior.dscommerce.config.customgrant;
 
 import java.security.Principal;
-import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import com.devsuperior.dscommerce.entities.User;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClaimAccessor;
 import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
@@ -39,9 +38,6 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
 	private final UserDetailsService userDetailsService;
 	private final OAuth2TokenGenerator<? extends OAuth2Token> tokenGenerator;
 	private final PasswordEncoder passwordEncoder;
-	private String username = "";
-	private String password = "";
-	private Set<String> authorizedScopes = new HashSet<>();
 
 	public CustomPasswordAuthenticationProvider(OAuth2AuthorizationService authorizationService,
 			OAuth2TokenGenerator<? extends OAuth2Token> tokenGenerator, 
@@ -57,16 +53,17 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
 		this.passwordEncoder = passwordEncoder;
 	}
 	
+	// Sin estado propio: todo lo de cada login vive en variables locales, asi que el token endpoint no necesita serializarse
 	@Override
 	public Authentication authenticate(Authentication authentication) throws AuthenticationException {
 		
 		CustomPasswordAuthenticationToken customPasswordAuthenticationToken = (CustomPasswordAuthenticationToken) authentication;
 		OAuth2ClientAuthenticationToken clientPrincipal = getAuthenticatedClientElseThrowInvalidClient(customPasswordAuthenticationToken);
 		RegisteredClient registeredClient = clientPrincipal.getRegisteredClient();
-		username = customPasswordAuthenticationToken.getUsername();
-		password = customPasswordAuthenticationToken.getPassword();	
+		String username = customPasswordAuthenticationToken.getUsername();
+		String password = customPasswordAuthenticationToken.getPassword();
 		
-		UserDetails user = null;
+		UserDetails user;
 		try {
 			user = userDetailsService.loadUserByUsername(username);
 		} catch (UsernameNotFoundException e) {
@@ -77,19 +74,21 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
 			throw new OAuth2AuthenticationException("Invalid credentials");
 		}
 		
-		authorizedScopes = user.getAuthorities().stream()
+		Set<String> authorizedScopes = user.getAuthorities().stream()
 				.map(scope -> scope.getAuthority())
 				.filter(scope -> registeredClient.getScopes().contains(scope))
 				.collect(Collectors.toSet());
 		
-		//-----------Create a new Security Context Holder Context----------
-		OAuth2ClientAuthenticationToken oAuth2ClientAuthenticationToken = (OAuth2ClientAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
-		CustomUserAuthorities customPasswordUser = new CustomUserAuthorities(username, user.getAuthorities());
-		oAuth2ClientAuthenticationToken.setDetails(customPasswordUser);
-		
-		var newcontext = SecurityContextHolder.createEmptyContext();
-		newcontext.setAuthentication(oAuth2ClientAuthenticationToken);
-		SecurityContextHolder.setContext(newcontext);		
+		//-----------User details for the token customizer----------
+		// El token del cliente es propio de este request; el customizer lee el usuario desde sus details
+		Long userId = user instanceof User entity ? entity.getId() : null;
+		CustomUserAuthorities userAuthorities = new CustomUserAuthorities(userId, username, user.getAuthorities());
+		clientPrincipal.setDetails(userAuthorities);
+
+		// La autorizacion guarda al usuario, no al token del cliente: este arrastra el RegisteredClient
+		// y no se puede leer de vuelta cuando las autorizaciones viven en la tabla oauth2_authorization
+		UsernamePasswordAuthenticationToken userPrincipal = UsernamePasswordAuthenticationToken.authenticated(username, null, user.getAuthorities());
+		userPrincipal.setDetails(userAuthorities);
 		
 		//-----------TOKEN BUILDERS----------
 		DefaultOAuth2TokenContext.Builder tokenContextBuilder = DefaultOAuth2TokenContext.builder()
@@ -97,13 +96,13 @@ public class CustomPasswordAuthenticationProvider implements AuthenticationProvi
 				.principal(clientPrincipal)
 				.authorizationServerContext(AuthorizationServerContextHolder.getContext())
 				.authorizedScopes(authorizedScopes)
-				.authorizationGrantType(new AuthorizationGrantType("password"))
+				.authorizationGrantType(CustomPasswordAuthenticationToken.PASSWORD)
 				.authorizationGrant(customPasswordAuthenticationToken);
 		
 		OAuth2Authorization.Builder authorizationBuilder = OAuth2Authorization.withRegisteredClient(registeredClient)
-				.attribute(Principal.class.getName(), clientPrincipal)
-				.principalName(clientPrincipal.getName())
-				.authorizationGrantType(new AuthorizationGrantType("password"))
+				.attribute(Principal.class.getName(), userPrincipal)
+				.principalName(username)
+				.authorizationGrantType(CustomPasswordAuthenticationToken.PASSWORD)
 				.authorizedScopes(authorizedScopes);
 		
 		//-----------ACCESS TOKEN----------
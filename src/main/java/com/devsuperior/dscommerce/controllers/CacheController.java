@@ -0,0 +1,49 @@
+package com.devsuperior.dscommerce.controllers;
+
+import com.devsuperior.dscommerce.cache.OrderIdempotencyCache;
+import com.devsuperior.dscommerce.cache.ProductCountCache;
+import com.devsuperior.dscommerce.cache.ProductDetailCache;
+import com.devsuperior.dscommerce.cache.UserDetailsCache;
+import com.devsuperior.dscommerce.config.authorization.CaffeineOAuth2AuthorizationService;
+import com.devsuperior.dscommerce.dto.CacheStatsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/caches")
+public class CacheController {
+
+    @Autowired
+    private ProductDetailCache productDetailCache;
+
+    @Autowired
+    private ProductCountCache productCountCache;
+
+    @Autowired
+    private OrderIdempotencyCache orderIdempotencyCache;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private OAuth2AuthorizationService authorizationService;
+
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    @GetMapping
+    public ResponseEntity<List<CacheStatsDTO>> findAll() {
+        List<CacheStatsDTO> stats = new ArrayList<>(List.of(productDetailCache.getStats(), productCountCache.getStats(),
+                orderIdempotencyCache.getStats(), userDetailsCache.getStats()));
+        if (authorizationService instanceof CaffeineOAuth2AuthorizationService store) {
+            stats.add(store.getStats());
+        }
+        return ResponseEntity.ok(stats);
+    }
+}
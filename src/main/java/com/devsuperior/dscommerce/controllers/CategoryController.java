@@ -1,5 +1,6 @@
 package com.devsuperior.dscommerce.controllers;
 
+import com.devsuperior.dscommerce.cache.CategorySnapshot;
 import com.devsuperior.dscommerce.dto.CategoryDTO;
 import com.devsuperior.dscommerce.dto.ProductDTO;
 import com.devsuperior.dscommerce.dto.ProductMinDTO;
@@ -9,6 +10,8 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -24,9 +27,31 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    // Escribe los bytes ya codificados de la snapshot; gzip si el cliente lo acepta
     @GetMapping
-    public ResponseEntity<List<CategoryDTO>> findAll() {
-        List<CategoryDTO> categories = categoryService.findAll();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<byte[]> findAll(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        CategorySnapshot snapshot = categoryService.findSnapshot();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.eTag(snapshot.getGzipETag())
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(snapshot.getGzip());
+        }
+        return response.eTag(snapshot.getETag()).body(snapshot.getJson());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 }
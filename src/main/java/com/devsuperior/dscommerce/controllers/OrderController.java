@@ -1,16 +1,24 @@
 package com.devsuperior.dscommerce.controllers;
 
+import com.devsuperior.dscommerce.cache.OrderIdempotencyCache;
+import com.devsuperior.dscommerce.dto.CursorPageDTO;
+import com.devsuperior.dscommerce.dto.DailyRevenueDTO;
 import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.dto.OrderMinDTO;
 import com.devsuperior.dscommerce.entities.Order;
+import com.devsuperior.dscommerce.services.OrderIngestionService;
 import com.devsuperior.dscommerce.services.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/orders")
@@ -19,6 +27,12 @@ public class OrderController {
     @Autowired
     private OrderService service;
 
+    @Autowired
+    private OrderIngestionService orderIngestionService;
+
+    @Autowired
+    private OrderIdempotencyCache orderIdempotencyCache;
+
     @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_CLIENT')")
     @GetMapping("/{id}")
     public ResponseEntity<OrderDTO> findById(@PathVariable Long id) {
@@ -26,13 +40,49 @@ public class OrderController {
         return ResponseEntity.ok(dto);
     }
 
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_CLIENT')")
+    @GetMapping(params = "mine")
+    public ResponseEntity<CursorPageDTO<OrderMinDTO>> findMine(@RequestParam(value = "after", defaultValue = "") String after,
+                                                               @RequestParam(value = "size", defaultValue = "20") Integer size) {
+        CursorPageDTO<OrderMinDTO> dto = service.findMine(after, size);
+        return ResponseEntity.ok(dto);
+    }
+
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    @GetMapping(params = "clientId")
+    public ResponseEntity<CursorPageDTO<OrderMinDTO>> findByClient(@RequestParam Long clientId,
+                                                                   @RequestParam(value = "after", defaultValue = "") String after,
+                                                                   @RequestParam(value = "size", defaultValue = "20") Integer size) {
+        CursorPageDTO<OrderMinDTO> dto = service.findByClient(clientId, after, size);
+        return ResponseEntity.ok(dto);
+    }
+
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    @GetMapping("/revenue")
+    public ResponseEntity<List<DailyRevenueDTO>> findDailyRevenue(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        List<DailyRevenueDTO> list = service.findDailyRevenue(start, end);
+        return ResponseEntity.ok(list);
+    }
+
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    @GetMapping("/top")
+    public ResponseEntity<List<OrderMinDTO>> findTopOrders(@RequestParam(value = "size", defaultValue = "10") Integer size) {
+        List<OrderMinDTO> list = service.findTopOrders(size);
+        return ResponseEntity.ok(list);
+    }
+
+    // Con Idempotency-Key, un reintento del mismo pedido devuelve la orden ya creada sin volver a insertarla
     @PreAuthorize("hasAnyRole('ROLE_CLIENT')")
     @PostMapping
-    public ResponseEntity<OrderDTO> insert (@Valid @RequestBody OrderDTO dto) {
-        dto = service.insert(dto);
+    public ResponseEntity<OrderDTO> insert (@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                            @Valid @RequestBody OrderDTO dto) {
+        OrderDTO result = idempotencyKey == null
+                ? orderIngestionService.insert(dto)
+                : orderIdempotencyCache.execute(idempotencyKey, dto, () -> orderIngestionService.insert(dto));
         URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
-                .buildAndExpand(dto.getId()).toUri();
-        return ResponseEntity.created(uri).body(dto);
+                .buildAndExpand(result.getId()).toUri();
+        return ResponseEntity.created(uri).body(result);
     }
 
 }
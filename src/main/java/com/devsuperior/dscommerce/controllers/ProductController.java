@@ -1,19 +1,35 @@
 package com.devsuperior.dscommerce.controllers;
 
+import com.devsuperior.dscommerce.dto.CategoryDTO;
+import com.devsuperior.dscommerce.dto.CursorPageDTO;
+import com.devsuperior.dscommerce.dto.ImportResultDTO;
 import com.devsuperior.dscommerce.dto.ProductDTO;
 import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.dto.ProductStockDTO;
+import com.devsuperior.dscommerce.services.ProductExportService;
+import com.devsuperior.dscommerce.services.ProductImportService;
 import com.devsuperior.dscommerce.services.ProductService;
+import com.devsuperior.dscommerce.services.exceptions.BadRequestException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/products")
@@ -22,15 +38,46 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    // Con If-None-Match igual al ETag, Spring responde 304 sin serializar el DTO
     @GetMapping(value = "/{id}")
     public ResponseEntity<ProductDTO> findById(@PathVariable Long id) {
         ProductDTO dto = productService.findById(id);
-        return ResponseEntity.ok(dto);
+        return ResponseEntity.ok().eTag(eTag(dto)).body(dto);
     }
 
+    // count=estimated informa un total aproximado; count=none devuelve un Slice sin totalElements, para scroll infinito
     @GetMapping
-    public ResponseEntity<Page<ProductMinDTO>> findAll(@RequestParam(value = "name", defaultValue = "") String name, Pageable pageable) {
-        Page<ProductMinDTO> dto = productService.findAll(name, pageable);
+    public ResponseEntity<Slice<ProductMinDTO>> findAll(@RequestParam(value = "name", defaultValue = "") String name,
+                                                        @RequestParam(value = "count", defaultValue = "exact") String count,
+                                                        Pageable pageable) {
+        Slice<ProductMinDTO> dto = switch (count) {
+            case "exact" -> productService.findAll(name, pageable);
+            case "estimated" -> productService.findAllEstimated(name, pageable);
+            case "none" -> productService.findAllSlice(name, pageable);
+            default -> throw new BadRequestException("Modo de conteo no soportado");
+        };
+        return ResponseEntity.ok(dto);
+    }
+
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAll() {
+        StreamingResponseBody body = out -> productExportService.exportAll(out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPageDTO<ProductMinDTO>> findAllAfter(@RequestParam(value = "name", defaultValue = "") String name,
+                                                                     @RequestParam(value = "after", defaultValue = "") String after,
+                                                                     @RequestParam(value = "size", defaultValue = "20") Integer size,
+                                                                     @RequestParam(value = "sort", defaultValue = "id") String sort) {
+        CursorPageDTO<ProductMinDTO> dto = productService.findAllAfter(name, after, size, sort);
         return ResponseEntity.ok(dto);
     }
 
@@ -43,10 +90,31 @@ public class ProductController {
         return ResponseEntity.created(uri).body(dto);
     }
 
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportResultDTO> insertAll(InputStream body) throws IOException {
+        ImportResultDTO result = productImportService.importProducts(body);
+        return ResponseEntity.ok(result);
+    }
+
     @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
     @PutMapping(value = "/{id}")
     public ResponseEntity<ProductDTO> update(@PathVariable Long id, @Valid @RequestBody ProductDTO dto) {
         dto = productService.update(id, dto);
+        return ResponseEntity.ok().eTag(eTag(dto)).body(dto);
+    }
+
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    @GetMapping(value = "/{id}/stock")
+    public ResponseEntity<ProductStockDTO> findStock(@PathVariable Long id) {
+        ProductStockDTO dto = productService.findStock(id);
+        return ResponseEntity.ok(dto);
+    }
+
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    @PutMapping(value = "/{id}/stock")
+    public ResponseEntity<ProductStockDTO> updateStock(@PathVariable Long id, @Valid @RequestBody ProductStockDTO dto) {
+        dto = productService.updateStock(id, dto);
         return ResponseEntity.ok(dto);
     }
 
@@ -56,4 +124,15 @@ public class ProductController {
         productService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Renombrar una categoria no cambia la version del producto, por eso el ETag tambien depende de sus categorias:
+    // MD5 de los pares id:nombre ordenados por id, asi intercambiar nombres entre categorias tambien lo cambia
+    private static String eTag(ProductDTO dto) {
+        String categories = dto.getCategories().stream()
+                .sorted(Comparator.comparing(CategoryDTO::getId, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .map(cat -> cat.getId() + ":" + cat.getName())
+                .collect(Collectors.joining("\n"));
+        return "\"" + dto.getId() + "-" + Objects.requireNonNullElse(dto.getVersion(), 0)
+                + "-" + DigestUtils.md5DigestAsHex(categories.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
 }
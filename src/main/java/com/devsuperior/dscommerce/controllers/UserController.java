@@ -1,11 +1,16 @@
 package com.devsuperior.dscommerce.controllers;
 
 import com.devsuperior.dscommerce.dto.UserDTO;
+import com.devsuperior.dscommerce.dto.UserRolesDTO;
 import com.devsuperior.dscommerce.services.UserService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -22,4 +27,11 @@ public class UserController {
         UserDTO dto = userService.getMe();
         return ResponseEntity.ok(dto);
     }
+
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    @PutMapping("/{id}/roles")
+    public ResponseEntity<UserDTO> updateRoles(@PathVariable Long id, @Valid @RequestBody UserRolesDTO dto) {
+        UserDTO result = userService.updateRoles(id, dto);
+        return ResponseEntity.ok(result);
+    }
 }
@@ -1,8 +1,11 @@
 package com.devsuperior.dscommerce.dto;
 
 import com.devsuperior.dscommerce.entities.Category;
+import jakarta.validation.constraints.NotNull;
 
 public class CategoryDTO {
+    // Los productos solo referencian categorias existentes por id
+    @NotNull(message = "Campo requerido")
     private Long id;
     private String name;
 
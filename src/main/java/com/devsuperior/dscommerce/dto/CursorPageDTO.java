@@ -0,0 +1,29 @@
+package com.devsuperior.dscommerce.dto;
+
+import java.util.List;
+
+public class CursorPageDTO<T> {
+    private List<T> content;
+    private String nextCursor;
+
+    public CursorPageDTO() {
+
+    }
+
+    public CursorPageDTO(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isLast() {
+        return nextCursor == null;
+    }
+}
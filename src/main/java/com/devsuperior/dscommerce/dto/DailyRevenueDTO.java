@@ -0,0 +1,31 @@
+package com.devsuperior.dscommerce.dto;
+
+import java.time.LocalDate;
+
+public class DailyRevenueDTO {
+    private LocalDate day;
+    private Long orders;
+    private Double revenue;
+
+    public DailyRevenueDTO() {
+
+    }
+
+    public DailyRevenueDTO(LocalDate day, Long orders, Double revenue) {
+        this.day = day;
+        this.orders = orders;
+        this.revenue = revenue;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public Long getOrders() {
+        return orders;
+    }
+
+    public Double getRevenue() {
+        return revenue;
+    }
+}
@@ -0,0 +1,31 @@
+package com.devsuperior.dscommerce.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportResultDTO {
+    private long imported;
+    private List<ImportRowErrorDTO> errors = new ArrayList<>();
+
+    public long getImported() {
+        return imported;
+    }
+
+    public int getFailed() {
+        return errors.size();
+    }
+
+    public List<ImportRowErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    public ImportRowErrorDTO addRowError(Long row) {
+        ImportRowErrorDTO error = new ImportRowErrorDTO(row);
+        errors.add(error);
+        return error;
+    }
+}
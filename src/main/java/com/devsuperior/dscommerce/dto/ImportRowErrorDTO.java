@@ -0,0 +1,25 @@
+package com.devsuperior.dscommerce.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportRowErrorDTO {
+    private Long row;
+    private List<FieldMessage> errors = new ArrayList<>();
+
+    public ImportRowErrorDTO(Long row) {
+        this.row = row;
+    }
+
+    public Long getRow() {
+        return row;
+    }
+
+    public List<FieldMessage> getErrors() {
+        return errors;
+    }
+
+    public void addError(String fieldName, String message) {
+        errors.add(new FieldMessage(fieldName, message));
+    }
+}
@@ -3,6 +3,7 @@ package com.devsuperior.dscommerce.dto;
 import com.devsuperior.dscommerce.entities.Order;
 import com.devsuperior.dscommerce.entities.OrderItem;
 import com.devsuperior.dscommerce.entities.OrderStatus;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 
 import java.time.Instant;
@@ -13,11 +14,13 @@ public class OrderDTO {
     private Long id;
     private Instant moment;
     private OrderStatus status;
+    private Double total;
+    private Integer itemCount;
     private ClientDTO client;
     private PaymentDTO payment;
 
     @NotEmpty(message = "Debe tener por lo menos un item")
-    private List<OrderItemDTO> items = new ArrayList<>();
+    private List<@Valid OrderItemDTO> items = new ArrayList<>();
 
     public OrderDTO() {
 
@@ -35,6 +38,8 @@ public class OrderDTO {
         id = entity.getId();
         moment = entity.getMoment();
         status = entity.getStatus();
+        total = entity.getTotal();
+        itemCount = entity.getItemCount();
         client = new ClientDTO(entity.getClient());
         payment = entity.getPayment() == null ? null : new PaymentDTO(entity.getPayment());
         for(OrderItem item : entity.getItems()) {
@@ -67,10 +72,10 @@ public class OrderDTO {
     }
 
     public Double getTotal() {
-        double sum = 0.0;
-        for(OrderItemDTO item : items) {
-            sum += item.getPrice();
-        }
-        return sum;
+        return total;
+    }
+
+    public Integer getItemCount() {
+        return itemCount;
     }
 }
@@ -0,0 +1,45 @@
+package com.devsuperior.dscommerce.dto;
+
+import com.devsuperior.dscommerce.entities.OrderStatus;
+
+import java.time.Instant;
+
+public class OrderMinDTO {
+    private Long id;
+    private Instant moment;
+    private OrderStatus status;
+    private Double total;
+    private Integer itemCount;
+
+    public OrderMinDTO() {
+
+    }
+
+    public OrderMinDTO(Long id, Instant moment, OrderStatus status, Double total, Integer itemCount) {
+        this.id = id;
+        this.moment = moment;
+        this.status = status;
+        this.total = total;
+        this.itemCount = itemCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Instant getMoment() {
+        return moment;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public Double getTotal() {
+        return total;
+    }
+
+    public Integer getItemCount() {
+        return itemCount;
+    }
+}
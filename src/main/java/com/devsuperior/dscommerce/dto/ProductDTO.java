@@ -2,6 +2,8 @@ package com.devsuperior.dscommerce.dto;
 
 import com.devsuperior.dscommerce.entities.Category;
 import com.devsuperior.dscommerce.entities.Product;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 
 import java.util.ArrayList;
@@ -19,9 +21,15 @@ public class ProductDTO {
     @Positive(message = "El precio debe ser positivo")
     private Double price;
     private String imgUrl;
+    private Integer version;
+
+    // Stock inicial opcional al crear o importar; no se devuelve, el stock vive en /products/{id}/stock
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    @PositiveOrZero(message = "El stock no puede ser negativo")
+    private Integer stock;
 
     @NotEmpty(message = "Debe tener al menos una categoria")
-    private List<CategoryDTO> categories = new ArrayList<>();
+    private List<@Valid CategoryDTO> categories = new ArrayList<>();
 
     public ProductDTO() {
 
@@ -41,6 +49,7 @@ public class ProductDTO {
         this.description = entity.getDescription();
         this.price = entity.getPrice();
         this.imgUrl = entity.getImgUrl();
+        this.version = entity.getVersion();
         for(Category cat : entity.getCategories()) {
             categories.add(new CategoryDTO(cat));
         }
@@ -66,6 +75,14 @@ public class ProductDTO {
         return imgUrl;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
     public List<CategoryDTO> getCategories() {
         return categories;
     }
@@ -0,0 +1,29 @@
+package com.devsuperior.dscommerce.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+public class ProductStockDTO {
+    private Long productId;
+
+    @NotNull(message = "Campo requerido")
+    @PositiveOrZero(message = "El stock no puede ser negativo")
+    private Integer stock;
+
+    public ProductStockDTO() {
+
+    }
+
+    public ProductStockDTO(Long productId, Integer stock) {
+        this.productId = productId;
+        this.stock = stock;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+}
@@ -0,0 +1,24 @@
+package com.devsuperior.dscommerce.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class UserRolesDTO {
+
+    @NotEmpty(message = "Debe tener al menos un rol")
+    private List<String> roles = new ArrayList<>();
+
+    public UserRolesDTO() {
+
+    }
+
+    public UserRolesDTO(List<String> roles) {
+        this.roles = roles;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+}
@@ -1,5 +1,6 @@
 package com.devsuperior.dscommerce.entities;
 
+import com.devsuperior.dscommerce.entities.listeners.CategoryListener;
 import jakarta.persistence.*;
 
 import java.util.HashSet;
@@ -8,10 +9,11 @@ import java.util.Set;
 
 @Entity
 @Table(name = "tb_category")
+@EntityListeners(CategoryListener.class)
 public class Category {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("seq_category")
     private Long id;
     private String name;
 
@@ -57,9 +59,6 @@ public class Category {
 
     @Override
     public int hashCode() {
-        int result = Objects.hashCode(id);
-        result = 31 * result + Objects.hashCode(name);
-        result = 31 * result + Objects.hashCode(products);
-        return result;
+        return Objects.hashCode(id);
     }
 }
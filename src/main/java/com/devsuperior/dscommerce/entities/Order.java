@@ -1,6 +1,7 @@
 package com.devsuperior.dscommerce.entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.Instant;
 
@@ -10,17 +11,30 @@ import java.util.Objects;
 import java.util.Set;
 
 @Entity
-@Table(name = "tb_order")
+@Table(name = "tb_order", indexes = {
+        @Index(name = "idx_order_moment", columnList = "moment"),
+        @Index(name = "idx_order_total", columnList = "total"),
+        @Index(name = "idx_order_client_moment", columnList = "client_id, moment")
+})
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("seq_order")
     private Long id;
 
     @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
     private Instant moment;
     private OrderStatus status;
 
+    // Desnormalizados al crear la orden para listar y agregar sin recorrer tb_order_item
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Double total = 0.0;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Integer itemCount = 0;
+
     @ManyToOne
     @JoinColumn(name = "client_id")
     private User client;
@@ -28,7 +42,7 @@ public class Order {
     @OneToOne(mappedBy = "order", cascade = CascadeType.ALL)
     private Payment payment;
 
-    @OneToMany(mappedBy = "id.order")
+    @OneToMany(mappedBy = "id.order", cascade = CascadeType.PERSIST)
     private Set<OrderItem> items = new HashSet<>();
 
     public Order() {
@@ -67,6 +81,22 @@ public class Order {
         this.status = status;
     }
 
+    public Double getTotal() {
+        return total;
+    }
+
+    public void setTotal(Double total) {
+        this.total = total;
+    }
+
+    public Integer getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(Integer itemCount) {
+        this.itemCount = itemCount;
+    }
+
     public User getClient() {
         return client;
     }
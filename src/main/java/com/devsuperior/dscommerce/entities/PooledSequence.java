@@ -0,0 +1,19 @@
+package com.devsuperior.dscommerce.entities;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+// Id tomado de la secuencia indicada; el tamanio del bloque de ids sale de la configuracion, ver PooledSequenceGenerator
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface PooledSequence {
+
+    String value();
+}
@@ -1,6 +1,7 @@
 package com.devsuperior.dscommerce.entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
 import java.util.List;
@@ -8,11 +9,11 @@ import java.util.Objects;
 import java.util.Set;
 
 @Entity
-@Table(name = "tb_product")
+@Table(name = "tb_product", indexes = @Index(name = "idx_product_name_id", columnList = "name, id"))
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("seq_product")
     private Long id;
     private String name;
 
@@ -21,6 +22,16 @@ public class Product {
     private Double price;
     private String imgUrl;
 
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Integer version;
+
+    // Se fija al insertar; despues solo cambia con UPDATE condicionados en ProductRepository y el flush nunca la pisa
+    @Column(nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private Integer stock = 0;
+
     @ManyToMany
     @JoinTable(name = "tb_product_category",
             joinColumns = @JoinColumn(name = "product_id"),
@@ -82,6 +93,18 @@ public class Product {
         this.imgUrl = imgUrl;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
     public Set<Category> getCategories() {
         return categories;
     }
@@ -1,5 +1,6 @@
 package com.devsuperior.dscommerce.entities;
 
+import com.devsuperior.dscommerce.entities.listeners.UserListener;
 import jakarta.persistence.*;
 import org.springframework.security.core.GrantedAuthority;
 
@@ -7,10 +8,11 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "tb_role")
+@EntityListeners(UserListener.class)
 public class Role implements GrantedAuthority {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("seq_role")
     private Long id;
     private String authority;
 
@@ -1,5 +1,6 @@
 package com.devsuperior.dscommerce.entities;
 
+import com.devsuperior.dscommerce.entities.listeners.UserListener;
 import jakarta.persistence.*;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -9,10 +10,11 @@ import java.util.*;
 
 @Entity
 @Table(name = "tb_user")
+@EntityListeners(UserListener.class)
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("seq_user")
     private Long id;
     private String name;
 
@@ -22,9 +24,6 @@ public class User implements UserDetails {
     private String password;
     private LocalDate birthDate;
 
-    @OneToMany(mappedBy = "client")
-    private List<Order> orders = new ArrayList<>();
-
     @ManyToMany
     @JoinTable(name = "tb_user_role", joinColumns = @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "role_id"))
     private Set<Role> roles = new HashSet<>();
@@ -86,10 +85,6 @@ public class User implements UserDetails {
         this.birthDate = birthDate;
     }
 
-    public List<Order> getOrders() {
-        return orders;
-    }
-
     public Set<Role> getRoles() { return roles; }
 
     public void addRole(Role role) { roles.add(role); }
@@ -0,0 +1,36 @@
+package com.devsuperior.dscommerce.entities.listeners;
+
+import com.devsuperior.dscommerce.cache.ProductDetailCache;
+import com.devsuperior.dscommerce.entities.Category;
+import com.devsuperior.dscommerce.services.CategoryService;
+import com.devsuperior.dscommerce.utils.TransactionUtil;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+// Hibernate obtiene el listener desde Spring; @Lazy evita el ciclo con el EntityManagerFactory
+@Component
+public class CategoryListener {
+
+    @Lazy
+    @Autowired
+    private CategoryService categoryService;
+
+    @Lazy
+    @Autowired
+    private ProductDetailCache productDetailCache;
+
+    // El detalle de cada producto incluye el nombre de sus categorias, y cambiar una no cambia la version del producto
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Category category) {
+        TransactionUtil.afterCommit(() -> {
+            categoryService.refreshSnapshot();
+            productDetailCache.invalidateAll();
+        });
+    }
+}
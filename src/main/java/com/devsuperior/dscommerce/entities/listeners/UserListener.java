@@ -0,0 +1,27 @@
+package com.devsuperior.dscommerce.entities.listeners;
+
+import com.devsuperior.dscommerce.cache.UserDetailsCache;
+import com.devsuperior.dscommerce.utils.TransactionUtil;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+// Un cambio de email o de un rol puede afectar a cualquier clave, por eso se vacia toda la cache.
+// Cambiar solo la coleccion de roles de un User no dispara @PostUpdate: UserService desaloja ese email a mano
+@Component
+public class UserListener {
+
+    @Lazy
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        TransactionUtil.afterCommit(() -> userDetailsCache.invalidateAll());
+    }
+}
@@ -1,8 +1,43 @@
 package com.devsuperior.dscommerce.repositories;
 
+import com.devsuperior.dscommerce.dto.DailyRevenueDTO;
+import com.devsuperior.dscommerce.dto.OrderMinDTO;
 import com.devsuperior.dscommerce.entities.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    // Orden, cliente, pago, items y productos en un solo SELECT
+    @Query("SELECT obj FROM Order obj JOIN FETCH obj.client LEFT JOIN FETCH obj.payment "
+            + "LEFT JOIN FETCH obj.items item LEFT JOIN FETCH item.id.product WHERE obj.id = :id")
+    Optional<Order> searchDetailsById(Long id);
+
+    // Solo lee tb_order: el total ya esta guardado en cada orden
+    @Query("SELECT new com.devsuperior.dscommerce.dto.DailyRevenueDTO(CAST(obj.moment AS LocalDate), COUNT(obj), SUM(obj.total)) "
+            + "FROM Order obj WHERE obj.moment >= :start AND obj.moment < :end "
+            + "AND obj.status <> com.devsuperior.dscommerce.entities.OrderStatus.CANCELED "
+            + "GROUP BY CAST(obj.moment AS LocalDate) ORDER BY CAST(obj.moment AS LocalDate)")
+    List<DailyRevenueDTO> searchDailyRevenue(Instant start, Instant end);
+
+    // Igual que la facturacion diaria, las ordenes canceladas no cuentan
+    @Query("SELECT new com.devsuperior.dscommerce.dto.OrderMinDTO(obj.id, obj.moment, obj.status, obj.total, obj.itemCount) "
+            + "FROM Order obj WHERE obj.status <> com.devsuperior.dscommerce.entities.OrderStatus.CANCELED "
+            + "ORDER BY obj.total DESC, obj.id")
+    List<OrderMinDTO> searchTopByTotal(Pageable pageable);
+
+    // Historial del cliente, de la orden mas nueva a la mas vieja; usa el indice (client_id, moment)
+    @Query("SELECT new com.devsuperior.dscommerce.dto.OrderMinDTO(obj.id, obj.moment, obj.status, obj.total, obj.itemCount) "
+            + "FROM Order obj WHERE obj.client.id = :clientId ORDER BY obj.moment DESC, obj.id DESC")
+    List<OrderMinDTO> searchByClient(Long clientId, Pageable pageable);
+
+    @Query("SELECT new com.devsuperior.dscommerce.dto.OrderMinDTO(obj.id, obj.moment, obj.status, obj.total, obj.itemCount) "
+            + "FROM Order obj WHERE obj.client.id = :clientId "
+            + "AND (obj.moment < :moment OR (obj.moment = :moment AND obj.id < :id)) ORDER BY obj.moment DESC, obj.id DESC")
+    List<OrderMinDTO> searchByClientBefore(Long clientId, Instant moment, Long id, Pageable pageable);
 }
@@ -1,14 +1,73 @@
 package com.devsuperior.dscommerce.repositories;
 
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
 import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.projections.ProductCategoryProjection;
+import com.devsuperior.dscommerce.projections.ProductNameProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> findProductsByName(String name, Pageable pageable);
 
-    @Query("SELECT obj FROM Product obj WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%',:name,'%')) ")
-    Page<Product> searchByName(String name, Pageable pageable);
+    @Query("SELECT COUNT(obj) FROM Product obj WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%',:name,'%')) ")
+    long countByName(String name);
+
+    // Como Slice, Spring Data trae size + 1 filas y no ejecuta el COUNT
+    @Query("SELECT new com.devsuperior.dscommerce.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) "
+            + "FROM Product obj WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%',:name,'%')) ")
+    Slice<ProductMinDTO> searchSliceByName(String name, Pageable pageable);
+
+    @Query("SELECT new com.devsuperior.dscommerce.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) "
+            + "FROM Product obj WHERE obj.id IN :ids")
+    List<ProductMinDTO> searchByIds(List<Long> ids);
+
+    @Query("SELECT new com.devsuperior.dscommerce.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) "
+            + "FROM Product obj WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%',:name,'%')) "
+            + "AND obj.id > :id ORDER BY obj.id")
+    List<ProductMinDTO> searchByNameAfterId(String name, Long id, Pageable pageable);
+
+    @Query("SELECT new com.devsuperior.dscommerce.dto.ProductMinDTO(obj.id, obj.name, obj.price, obj.imgUrl) "
+            + "FROM Product obj WHERE UPPER(obj.name) LIKE UPPER(CONCAT('%',:name,'%')) "
+            + "AND (obj.name > :lastName OR (obj.name = :lastName AND obj.id > :id)) ORDER BY obj.name, obj.id")
+    List<ProductMinDTO> searchByNameAfterName(String name, String lastName, Long id, Pageable pageable);
+
+    @Query("SELECT obj FROM Product obj LEFT JOIN FETCH obj.categories WHERE obj.id = :id")
+    Optional<Product> searchByIdWithCategories(Long id);
+
+    @Query("SELECT obj.id AS id, obj.name AS name FROM Product obj")
+    List<ProductNameProjection> searchIdAndName();
+
+    // Una fila por producto y categoria, ordenadas por producto; las proyecciones no quedan en el contexto de persistencia
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT obj.id AS id, obj.name AS name, obj.description AS description, obj.price AS price, "
+            + "obj.imgUrl AS imgUrl, cat.id AS categoryId, cat.name AS categoryName "
+            + "FROM Product obj LEFT JOIN obj.categories cat ORDER BY obj.id, cat.id")
+    Stream<ProductCategoryProjection> streamAllWithCategories();
+
+    @Query("SELECT obj.stock FROM Product obj WHERE obj.id = :id")
+    Optional<Integer> searchStockById(Long id);
+
+    @Modifying
+    @Query("UPDATE Product obj SET obj.stock = :stock WHERE obj.id = :id")
+    int updateStock(Long id, Integer stock);
+
+    // Descuenta solo si alcanza; el bloqueo es por fila, asi que productos distintos no compiten entre si
+    @Modifying
+    @Query("UPDATE Product obj SET obj.stock = obj.stock - :quantity WHERE obj.id = :id AND obj.stock >= :quantity")
+    int decreaseStock(Long id, Integer quantity);
 }
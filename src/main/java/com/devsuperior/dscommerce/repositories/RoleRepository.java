@@ -0,0 +1,12 @@
+package com.devsuperior.dscommerce.repositories;
+
+import com.devsuperior.dscommerce.entities.Role;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface RoleRepository extends JpaRepository<Role, Long> {
+
+    List<Role> findByAuthorityIn(Collection<String> authorities);
+}
@@ -0,0 +1,373 @@
+package com.devsuperior.dscommerce.search;
+
+import com.devsuperior.dscommerce.projections.ProductNameProjection;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Indice invertido de trigramas sobre el nombre de los productos. Resuelve en memoria
+ * los ids que cumplen {@code UPPER(name) LIKE UPPER('%term%')} sin recorrer tb_product.
+ * Solo sirve terminos de al menos {@link #GRAM} caracteres; los mas cortos van a la base.
+ */
+@Component
+public class ProductNameIndex {
+
+    public static final int GRAM = 3;
+
+    // Con menos candidatos que 1/SORT_RATIO del catalogo conviene ordenarlos; con mas, recorrer el orden por nombre
+    private static final int SORT_RATIO = 16;
+
+    private static final Comparator<String> NAME_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, String> names = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Ids ordenados por (nombre, id), con el nombre tal como esta en la base, igual que ORDER BY name
+    private long[] byName = new long[0];
+    private int byNameSize;
+
+    @PostConstruct
+    public void rebuild() {
+        List<ProductNameProjection> result = productRepository.searchIdAndName();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            names.clear();
+            for (ProductNameProjection projection : result) {
+                names.put(projection.getId(), projection.getName());
+                addGrams(projection.getId(), projection.getName());
+            }
+            byName = names.keySet().stream()
+                    .sorted(this::compareByName)
+                    .mapToLong(Long::longValue)
+                    .toArray();
+            byNameSize = byName.length;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Long id, String name) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+            names.put(id, name);
+            addGrams(id, name);
+            insertByName(id);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Terminos mas cortos que un trigrama no tienen lista de ids que los acote
+    public boolean supports(String term) {
+        return term != null && term.length() >= GRAM;
+    }
+
+    // Orden por id, por nombre o por nombre y despues id en el mismo sentido
+    public boolean supports(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.isEmpty()) {
+            return true;
+        }
+        Sort.Order first = orders.get(0);
+        if (orders.size() == 1) {
+            return first.getProperty().equals("id") || first.getProperty().equals("name");
+        }
+        Sort.Order second = orders.get(1);
+        return orders.size() == 2 && first.getProperty().equals("name")
+                && second.getProperty().equals("id") && second.getDirection() == first.getDirection();
+    }
+
+    // Cota superior de coincidencias sin verificar nombres: la lista de ids mas chica entre los trigramas
+    public int estimate(String term) {
+        lock.readLock().lock();
+        try {
+            if (!supports(term)) {
+                return names.size();
+            }
+            PostingList candidates = candidates(term);
+            return candidates == null ? 0 : candidates.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Cantidad exacta de nombres que contienen el termino; recorre solo la lista de ids mas chica
+    public long count(String term) {
+        lock.readLock().lock();
+        try {
+            PostingList candidates = candidates(term);
+            long result = 0;
+            for (int i = 0; candidates != null && i < candidates.size(); i++) {
+                if (containsIgnoreCase(names.get(candidates.get(i)), term)) {
+                    result++;
+                }
+            }
+            return result;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids de la pagina pedida, en el orden de {@code sort}. Recorre las listas ya ordenadas y corta apenas
+     * completa la pagina; solo ordena coincidencias cuando son pocas frente al catalogo.
+     */
+    public List<Long> search(String term, Sort sort, long offset, int limit) {
+        Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc("id"));
+        boolean descending = order.isDescending();
+        lock.readLock().lock();
+        try {
+            PostingList candidates = candidates(term);
+            if (candidates == null || limit <= 0) {
+                return List.of();
+            }
+            if (order.getProperty().equals("id")) {
+                return pageById(candidates, term, descending, offset, limit);
+            }
+            if ((long) candidates.size() * SORT_RATIO < byNameSize) {
+                return pageBySortedCandidates(candidates, term, descending, offset, limit);
+            }
+            return pageByNameOrder(candidates, term, descending, offset, limit);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> pageById(PostingList candidates, String term, boolean descending, long offset, int limit) {
+        List<Long> result = new ArrayList<>(Math.min(limit, candidates.size()));
+        long skipped = 0;
+        for (int i = 0; i < candidates.size() && result.size() < limit; i++) {
+            long id = candidates.get(descending ? candidates.size() - 1 - i : i);
+            if (containsIgnoreCase(names.get(id), term) && skipped++ >= offset) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    // Pocos candidatos: se ordenan solo ellos
+    private List<Long> pageBySortedCandidates(PostingList candidates, String term, boolean descending, long offset, int limit) {
+        List<Long> matches = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            long id = candidates.get(i);
+            if (containsIgnoreCase(names.get(id), term)) {
+                matches.add(id);
+            }
+        }
+        if (offset >= matches.size()) {
+            return List.of();
+        }
+        Comparator<Long> comparator = this::compareByName;
+        matches.sort(descending ? comparator.reversed() : comparator);
+        int from = (int) offset;
+        return new ArrayList<>(matches.subList(from, (int) Math.min(from + (long) limit, matches.size())));
+    }
+
+    // Muchos candidatos: se recorre el orden por nombre hasta completar la pagina
+    private List<Long> pageByNameOrder(PostingList candidates, String term, boolean descending, long offset, int limit) {
+        List<Long> result = new ArrayList<>(limit);
+        long skipped = 0;
+        for (int i = 0; i < byNameSize && result.size() < limit; i++) {
+            long id = byName[descending ? byNameSize - 1 - i : i];
+            if (candidates.contains(id) && containsIgnoreCase(names.get(id), term) && skipped++ >= offset) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private PostingList candidates(String term) {
+        PostingList smallest = null;
+        for (String gram : grams(normalize(term))) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                return null;
+            }
+            if (smallest == null || list.size() < smallest.size()) {
+                smallest = list;
+            }
+        }
+        return smallest;
+    }
+
+    private void addGrams(Long id, String name) {
+        for (String gram : grams(normalize(name))) {
+            postings.computeIfAbsent(gram, k -> new PostingList()).add(id);
+        }
+    }
+
+    private void remove(Long id) {
+        if (!names.containsKey(id)) {
+            return;
+        }
+        removeByName(id);
+        String name = names.remove(id);
+        for (String gram : grams(normalize(name))) {
+            PostingList list = postings.get(gram);
+            list.remove(id);
+            if (list.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private void insertByName(long id) {
+        int position = -byNamePosition(id) - 1;
+        if (byNameSize == byName.length) {
+            byName = Arrays.copyOf(byName, Math.max(16, byNameSize * 2));
+        }
+        System.arraycopy(byName, position, byName, position + 1, byNameSize - position);
+        byName[position] = id;
+        byNameSize++;
+    }
+
+    // Se llama antes de sacar el nombre del mapa: la busqueda binaria lo necesita
+    private void removeByName(long id) {
+        int position = byNamePosition(id);
+        System.arraycopy(byName, position + 1, byName, position, byNameSize - position - 1);
+        byNameSize--;
+    }
+
+    private int byNamePosition(long id) {
+        int low = 0;
+        int high = byNameSize - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareByName(byName[mid], id);
+            if (cmp < 0) {
+                low = mid + 1;
+            }
+            else if (cmp > 0) {
+                high = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private int compareByName(long a, long b) {
+        int result = NAME_ORDER.compare(names.get(a), names.get(b));
+        return result != 0 ? result : Long.compare(a, b);
+    }
+
+    // Equivale a UPPER(name) LIKE UPPER('%term%') sin crear strings por cada nombre comparado
+    private static boolean containsIgnoreCase(String name, String term) {
+        if (name == null) {
+            return false;
+        }
+        for (int i = 0; i + term.length() <= name.length(); i++) {
+            if (name.regionMatches(true, i, term, 0, term.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            result.add(value.substring(i, i + GRAM));
+        }
+        return result;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toUpperCase(Locale.ROOT);
+    }
+
+    // Lista de ids ordenada y sin repetidos; los ids nuevos casi siempre se agregan al final
+    static class PostingList {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        long get(int index) {
+            return ids[index];
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int position = Arrays.binarySearch(ids, 0, size, id);
+                if (position >= 0) {
+                    return;
+                }
+                insertAt(-position - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        void remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+
+        private void insertAt(int position, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.devsuperior.dscommerce.services;
 
 import com.devsuperior.dscommerce.entities.User;
 import com.devsuperior.dscommerce.services.exceptions.ForbiddenException;
+import com.devsuperior.dscommerce.utils.CustomUserUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -9,16 +10,15 @@ import org.springframework.stereotype.Service;
 public class AuthService {
 
     @Autowired
-    private UserService userService;
+    private CustomUserUtil customUserUtil;
 
-    public void validateSelfOrAdmin(Long userId) {
-        User me = userService.authenticated();
-
-        if (me.hasRole("ROLE_ADMIN")) {
+    // Compara contra los claims del token; el duenio ya viene cargado con el recurso, sin otra consulta
+    public void validateSelfOrAdmin(User owner) {
+        if (customUserUtil.hasLoggedRole("ROLE_ADMIN")) {
             return;
         }
 
-        if(!me.getId().equals(userId)) {
+        if (!owner.getId().equals(customUserUtil.getLoggedUserId())) {
             throw new ForbiddenException("Access denied. Should be self or admin");
         }
     }
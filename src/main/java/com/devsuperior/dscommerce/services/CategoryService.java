@@ -1,17 +1,16 @@
 package com.devsuperior.dscommerce.services;
 
+import com.devsuperior.dscommerce.cache.CategorySnapshot;
 import com.devsuperior.dscommerce.dto.CategoryDTO;
-import com.devsuperior.dscommerce.dto.ProductMinDTO;
 import com.devsuperior.dscommerce.entities.Category;
-import com.devsuperior.dscommerce.entities.Product;
 import com.devsuperior.dscommerce.repositories.CategoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,9 +19,27 @@ public class CategoryService {
     @Autowired
     CategoryRepository categoryRepository;
 
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private final AtomicReference<CategorySnapshot> snapshot = new AtomicReference<>();
+
     @Transactional(readOnly = true)
     public List<CategoryDTO> findAll() {
         List<Category> result = categoryRepository.findAll();
         return result.stream().map(CategoryDTO::new).collect(Collectors.toList());
     }
+
+    // Sin transaccion: una vez construida, la snapshot se sirve sin tocar la base
+    public CategorySnapshot findSnapshot() {
+        CategorySnapshot result = snapshot.get();
+        return result != null ? result : refreshSnapshot();
+    }
+
+    // Sincronizado para que la ultima snapshot publicada sea siempre la leida mas tarde
+    public synchronized CategorySnapshot refreshSnapshot() {
+        CategorySnapshot result = CategorySnapshot.of(findAll(), objectMapper);
+        snapshot.set(result);
+        return result;
+    }
 }
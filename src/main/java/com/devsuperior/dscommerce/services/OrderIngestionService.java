@@ -0,0 +1,268 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.entities.Order;
+import com.devsuperior.dscommerce.services.exceptions.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Modo opcional de ingreso de ordenes: cada request valida y arma su orden, la deja en una cola acotada
+ * y espera; un unico escritor toma hasta batch-size ordenes (o las que lleguen en linger-ms) y las confirma
+ * en una sola transaccion. Con la cola llena o el modo apagado, la orden se inserta directamente.
+ * El escritor corre en un executor que Spring arma y que se detiene con el contexto, despues de vaciar la cola.
+ */
+@Service
+public class OrderIngestionService implements SmartLifecycle {
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ThreadPoolTaskExecutorBuilder executorBuilder;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long timeoutNanos;
+    private final BlockingQueue<PendingOrder> queue;
+
+    private volatile boolean running;
+    private ThreadPoolTaskExecutor executor;
+    private CountDownLatch stopped;
+
+    public OrderIngestionService(@Value("${orders.ingestion.enabled}") boolean enabled,
+                                 @Value("${orders.ingestion.batch-size}") int batchSize,
+                                 @Value("${orders.ingestion.linger-ms}") long lingerMs,
+                                 @Value("${orders.ingestion.capacity}") int capacity,
+                                 @Value("${orders.ingestion.timeout-ms}") long timeoutMs) {
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        executor = executorBuilder
+                .corePoolSize(1)
+                .maxPoolSize(1)
+                .threadNamePrefix("order-ingestion-")
+                .awaitTermination(true)
+                .awaitTerminationPeriod(SHUTDOWN_TIMEOUT)
+                .build();
+        executor.initialize();
+        stopped = new CountDownLatch(1);
+        running = true;
+        executor.execute(this::drain);
+    }
+
+    // Deja de aceptar ordenes, espera a que el escritor confirme las encoladas y falla las que no alcanzo
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            stopped.await(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdown();
+        List<PendingOrder> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (PendingOrder pending : remaining) {
+            pending.result.completeExceptionally(new ServiceUnavailableException("Ingreso de ordenes detenido"));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public OrderDTO insert(OrderDTO dto) {
+        if (!enabled) {
+            return orderService.insert(dto);
+        }
+        Order order = orderService.prepare(dto);
+        PendingOrder pending = new PendingOrder(dto, order);
+        if (!running || !queue.offer(pending)) {
+            orderService.insertAll(List.of(order));
+            return new OrderDTO(order);
+        }
+        try {
+            return await(pending);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pending.cancel()) {
+                throw new ServiceUnavailableException("Ingreso de ordenes interrumpido");
+            }
+            return join(pending);
+        }
+    }
+
+    // Si vence la espera y el escritor todavia no tomo la orden, se retira y nunca se escribe;
+    // si ya la tomo, su lote esta en curso y se espera ese resultado
+    private OrderDTO await(PendingOrder pending) throws InterruptedException {
+        try {
+            return pending.result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        }
+        catch (TimeoutException e) {
+            if (pending.cancel()) {
+                queue.remove(pending);
+                throw new ServiceUnavailableException("Tiempo de espera agotado para confirmar la orden");
+            }
+            return join(pending);
+        }
+        catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private static OrderDTO join(PendingOrder pending) {
+        try {
+            return pending.result.join();
+        }
+        catch (CompletionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        throw new IllegalStateException(cause);
+    }
+
+    // Un error inesperado en un lote lo falla y el escritor sigue con el siguiente; solo termina al detenerse
+    private void drain() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null || !first.take()) {
+                        continue;
+                    }
+                    batch.add(first);
+                    long deadline = System.nanoTime() + lingerNanos;
+                    while (batch.size() < batchSize) {
+                        PendingOrder next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        if (next.take()) {
+                            batch.add(next);
+                        }
+                    }
+                    write(batch);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    fail(batch, e);
+                    return;
+                }
+                catch (Throwable e) {
+                    fail(batch, e);
+                }
+                finally {
+                    batch.clear();
+                }
+            }
+        }
+        finally {
+            stopped.countDown();
+        }
+    }
+
+    private void write(List<PendingOrder> batch) {
+        try {
+            orderService.insertAll(batch.stream().map(pending -> pending.order).toList());
+            for (PendingOrder pending : batch) {
+                pending.result.complete(new OrderDTO(pending.order));
+            }
+        }
+        catch (RuntimeException e) {
+            // El lote se revirtio completo; cada orden se reintenta sola para no arrastrar a las demas
+            for (PendingOrder pending : batch) {
+                writeOne(pending);
+            }
+        }
+    }
+
+    // Las entidades del lote revertido quedaron con ids y estado de una transaccion que no existe:
+    // la orden se vuelve a armar desde el pedido original, con el mismo cliente
+    private void writeOne(PendingOrder pending) {
+        try {
+            Order order = orderService.prepare(pending.request, pending.order.getClient());
+            orderService.insertAll(List.of(order));
+            pending.result.complete(new OrderDTO(order));
+        }
+        catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    private static void fail(List<PendingOrder> batch, Throwable e) {
+        for (PendingOrder pending : batch) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    private static class PendingOrder {
+
+        private static final int QUEUED = 0;
+        private static final int TAKEN = 1;
+        private static final int CANCELED = 2;
+
+        private final OrderDTO request;
+        private final Order order;
+        private final CompletableFuture<OrderDTO> result = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        PendingOrder(OrderDTO request, Order order) {
+            this.request = request;
+            this.order = order;
+        }
+
+        // El escritor y el request compiten por la orden: solo uno de los dos la toma
+        boolean take() {
+            return state.compareAndSet(QUEUED, TAKEN);
+        }
+
+        boolean cancel() {
+            return state.compareAndSet(QUEUED, CANCELED);
+        }
+    }
+}
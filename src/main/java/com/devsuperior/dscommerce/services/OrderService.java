@@ -1,21 +1,42 @@
 package com.devsuperior.dscommerce.services;
 
+import com.devsuperior.dscommerce.dto.CursorPageDTO;
+import com.devsuperior.dscommerce.dto.DailyRevenueDTO;
 import com.devsuperior.dscommerce.dto.OrderDTO;
 import com.devsuperior.dscommerce.dto.OrderItemDTO;
+import com.devsuperior.dscommerce.dto.OrderMinDTO;
 import com.devsuperior.dscommerce.entities.*;
-import com.devsuperior.dscommerce.repositories.OrderItemRepository;
 import com.devsuperior.dscommerce.repositories.OrderRepository;
 import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.repositories.UserRepository;
+import com.devsuperior.dscommerce.services.exceptions.BadRequestException;
+import com.devsuperior.dscommerce.services.exceptions.InvalidDataException;
 import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscommerce.utils.CursorUtil;
+import com.devsuperior.dscommerce.utils.CustomUserUtil;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     @Autowired
     private OrderRepository repository;
 
@@ -23,37 +44,187 @@ public class OrderService {
     private ProductRepository productRepository;
 
     @Autowired
-    private OrderItemRepository orderItemRepository;
+    private UserRepository userRepository;
 
     @Autowired
-    private UserService userService;
+    private AuthService authService;
 
     @Autowired
-    private AuthService authService;
+    private CustomUserUtil customUserUtil;
 
     @Transactional(readOnly = true)
     public OrderDTO findById(Long id) {
-        Order order = repository.findById(id).orElseThrow(
+        Order order = repository.searchDetailsById(id).orElseThrow(
                 () -> new ResourceNotFoundException("Orden no encontrada"));
-        authService.validateSelfOrAdmin(order.getClient().getId());
+        authService.validateSelfOrAdmin(order.getClient());
         return new OrderDTO(order);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderMinDTO> findMine(String after, int size) {
+        return findByClient(customUserUtil.getLoggedUserId(), after, size);
+    }
+
+    // Paginacion por clave sobre (moment, id): el cursor guarda el momento y el id de la ultima orden
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderMinDTO> findByClient(Long clientId, String after, int size) {
+        size = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<OrderMinDTO> result;
+        if (after == null || after.isEmpty()) {
+            result = repository.searchByClient(clientId, limit);
+        }
+        else {
+            String[] cursor = CursorUtil.decode(after, 2);
+            result = repository.searchByClientBefore(clientId, parseMoment(cursor[0]), parseId(cursor[1]), limit);
+        }
+
+        String nextCursor = null;
+        if (result.size() > size) {
+            result = result.subList(0, size);
+            OrderMinDTO last = result.getLast();
+            nextCursor = CursorUtil.encode(last.getMoment().toString(), last.getId().toString());
+        }
+        return new CursorPageDTO<>(result, nextCursor);
+    }
+
+    // Dias en la zona horaria del servidor, igual que CAST(moment AS LocalDate); end es inclusivo
+    @Transactional(readOnly = true)
+    public List<DailyRevenueDTO> findDailyRevenue(LocalDate start, LocalDate end) {
+        if (start.isAfter(end)) {
+            throw new BadRequestException("Rango de fechas invalido");
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        return repository.searchDailyRevenue(start.atStartOfDay(zone).toInstant(), end.plusDays(1).atStartOfDay(zone).toInstant());
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderMinDTO> findTopOrders(int size) {
+        if (size < 1 || size > 100) {
+            throw new BadRequestException("Tamanio de pagina invalido");
+        }
+        return repository.searchTopByTotal(PageRequest.of(0, size));
+    }
+
     @Transactional
     public OrderDTO insert(OrderDTO dto) {
+        Order order = buildOrder(dto, loggedClient());
+        reserveStock(List.of(order));
+        // Los items se persisten en cascada y se insertan en un lote JDBC al hacer flush
+        order = repository.save(order);
+
+        return new OrderDTO(order);
+    }
+
+    // Valida el pedido y arma la orden sin persistirla; cliente y productos quedan cargados
+    @Transactional(readOnly = true)
+    public Order prepare(OrderDTO dto) {
+        Order order = buildOrder(dto, loggedClient());
+        // La orden sale de la transaccion y el hilo escritor arma la respuesta sin sesion
+        Hibernate.initialize(order.getClient());
+        return order;
+    }
+
+    // Igual que prepare, para un cliente ya resuelto; sirve fuera del hilo del request, sin usuario logueado
+    @Transactional(readOnly = true)
+    public Order prepare(OrderDTO dto, User client) {
+        return buildOrder(dto, client);
+    }
+
+    // Persiste varias ordenes ya preparadas en una sola transaccion
+    @Transactional
+    public void insertAll(List<Order> orders) {
+        reserveStock(orders);
+        repository.saveAll(orders);
+    }
+
+    // Referencia por el id del token: la orden solo necesita la clave foranea, el SELECT del usuario
+    // se hace recien al armar la respuesta y nunca para un carrito invalido
+    private User loggedClient() {
+        return userRepository.getReferenceById(customUserUtil.getLoggedUserId());
+    }
+
+    private Order buildOrder(OrderDTO dto, User client) {
         Order order = new Order();
         order.setMoment(Instant.now());
         order.setStatus(OrderStatus.WAITING_PAYMENT);
-        User user = userService.authenticated();
-        order.setClient(user);
+        order.setClient(client);
+        Map<Long, Product> products = findProducts(dto.getItems());
+        double total = 0.0;
+        int itemCount = 0;
         for(OrderItemDTO itemDto : dto.getItems()) {
-            Product product = productRepository.getReferenceById(itemDto.getProductId());
+            Product product = products.get(itemDto.getProductId());
             OrderItem orderItem = new OrderItem(order, product, itemDto.getQuantity(), product.getPrice());
             order.getItems().add(orderItem);
+            total += product.getPrice() * itemDto.getQuantity();
+            itemCount += itemDto.getQuantity();
         }
-        order = repository.save(order);
-        orderItemRepository.saveAll(order.getItems());
+        order.setTotal(total);
+        order.setItemCount(itemCount);
+        return order;
+    }
 
-        return new OrderDTO(order);
+    private Instant parseMoment(String value) {
+        try {
+            return Instant.parse(value);
+        }
+        catch (DateTimeParseException e) {
+            throw new BadRequestException("Cursor invalido");
+        }
+    }
+
+    private Long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException e) {
+            throw new BadRequestException("Cursor invalido");
+        }
+    }
+
+    // Un UPDATE condicionado por producto, siempre en orden de id para que dos transacciones no se bloqueen en cruz;
+    // si falta stock se revierte toda la transaccion, incluidos los descuentos ya hechos
+    private void reserveStock(List<Order> orders) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (Order order : orders) {
+            for (OrderItem item : order.getItems()) {
+                quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+        }
+
+        InvalidDataException exception = new InvalidDataException("Datos invalidos");
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (productRepository.decreaseStock(entry.getKey(), entry.getValue()) == 0) {
+                exception.addError("items", "Stock insuficiente para el producto " + entry.getKey());
+            }
+        }
+        if (!exception.getErrors().isEmpty()) {
+            throw exception;
+        }
+    }
+
+    // Un solo SELECT ... WHERE id IN (...) para todo el carrito; los ids inexistentes se informan por item.
+    // La cantidad se vuelve a validar aqui porque el ingreso de ordenes arma pedidos fuera del controller:
+    // una cantidad negativa sumaria stock al reservar
+    private Map<Long, Product> findProducts(List<OrderItemDTO> items) {
+        List<Long> ids = items.stream().map(OrderItemDTO::getProductId).filter(Objects::nonNull).distinct().toList();
+        Map<Long, Product> products = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        InvalidDataException exception = new InvalidDataException("Datos invalidos");
+        for (int i = 0; i < items.size(); i++) {
+            if (!products.containsKey(items.get(i).getProductId())) {
+                exception.addError("items[" + i + "].productId", "Producto inexistente");
+            }
+            Integer quantity = items.get(i).getQuantity();
+            if (quantity == null || quantity <= 0) {
+                exception.addError("items[" + i + "].quantity", "La cantidad debe ser positiva");
+            }
+        }
+        if (!exception.getErrors().isEmpty()) {
+            throw exception;
+        }
+        return products;
     }
 }
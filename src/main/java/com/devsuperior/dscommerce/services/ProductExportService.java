@@ -0,0 +1,59 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.CategoryDTO;
+import com.devsuperior.dscommerce.dto.ProductDTO;
+import com.devsuperior.dscommerce.projections.ProductCategoryProjection;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class ProductExportService {
+
+    private static final byte NEW_LINE = '\n';
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Escribe un producto por linea a medida que llegan las filas; solo se mantiene en memoria el producto actual
+    @Transactional(readOnly = true)
+    public void exportAll(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(ProductDTO.class);
+        try (Stream<ProductCategoryProjection> rows = productRepository.streamAllWithCategories()) {
+            Iterator<ProductCategoryProjection> iterator = rows.iterator();
+            ProductDTO current = null;
+            while (iterator.hasNext()) {
+                ProductCategoryProjection row = iterator.next();
+                if (current == null || !current.getId().equals(row.getId())) {
+                    if (current != null) {
+                        write(writer, current, out);
+                    }
+                    current = new ProductDTO(row.getId(), row.getName(), row.getDescription(), row.getPrice(), row.getImgUrl());
+                }
+                if (row.getCategoryId() != null) {
+                    current.getCategories().add(new CategoryDTO(row.getCategoryId(), row.getCategoryName()));
+                }
+            }
+            if (current != null) {
+                write(writer, current, out);
+            }
+        }
+        out.flush();
+    }
+
+    private void write(ObjectWriter writer, ProductDTO dto, OutputStream out) throws IOException {
+        out.write(writer.writeValueAsBytes(dto));
+        out.write(NEW_LINE);
+    }
+}
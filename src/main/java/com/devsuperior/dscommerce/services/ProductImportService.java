@@ -0,0 +1,114 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.ImportResultDTO;
+import com.devsuperior.dscommerce.dto.ImportRowErrorDTO;
+import com.devsuperior.dscommerce.dto.ProductDTO;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class ProductImportService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    // Lee un arreglo JSON o NDJSON fila por fila; cada bloque valido se inserta en su propia transaccion
+    public ImportResultDTO importProducts(InputStream body) throws IOException {
+        ImportResultDTO result = new ImportResultDTO();
+        List<ProductDTO> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Long> rows = new ArrayList<>(CHUNK_SIZE);
+
+        try (MappingIterator<ProductDTO> iterator = objectMapper.readerFor(ProductDTO.class).readValues(body)) {
+            long row = 0;
+            while (true) {
+                row++;
+                ProductDTO dto;
+                try {
+                    if (!iterator.hasNextValue()) {
+                        break;
+                    }
+                    dto = iterator.nextValue();
+                }
+                catch (JsonParseException e) {
+                    // Despues de un error de sintaxis no se puede ubicar la fila siguiente
+                    result.addRowError(row).addError("body", "JSON mal formado");
+                    break;
+                }
+                catch (JsonMappingException e) {
+                    result.addRowError(row).addError("body", "Datos invalidos");
+                    continue;
+                }
+
+                if (dto == null) {
+                    result.addRowError(row).addError("body", "Campo requerido");
+                    continue;
+                }
+                Set<ConstraintViolation<ProductDTO>> violations = validator.validate(dto);
+                if (!violations.isEmpty()) {
+                    ImportRowErrorDTO error = result.addRowError(row);
+                    for (ConstraintViolation<ProductDTO> violation : violations) {
+                        error.addError(violation.getPropertyPath().toString(), violation.getMessage());
+                    }
+                    continue;
+                }
+
+                chunk.add(dto);
+                rows.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    insertChunk(chunk, rows, result);
+                }
+            }
+        }
+        insertChunk(chunk, rows, result);
+        return result;
+    }
+
+    private void insertChunk(List<ProductDTO> chunk, List<Long> rows, ImportResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            productService.insertAll(chunk);
+            result.addImported(chunk.size());
+        }
+        catch (DataAccessException e) {
+            // El bloque se revirtio completo; se reintenta fila por fila para aislar las que fallan
+            for (int i = 0; i < chunk.size(); i++) {
+                try {
+                    productService.insert(chunk.get(i));
+                    result.addImported(1);
+                }
+                catch (DataAccessException rowException) {
+                    // La base no dice que campo fallo: se informa la fila completa
+                    String message = rowException instanceof DataIntegrityViolationException
+                            ? "Falla en la integridad referencial" : "No se pudo guardar la fila";
+                    result.addRowError(rows.get(i)).addError("body", message);
+                }
+            }
+        }
+        chunk.clear();
+        rows.clear();
+    }
+}
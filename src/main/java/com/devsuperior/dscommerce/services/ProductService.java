@@ -1,33 +1,65 @@
 package com.devsuperior.dscommerce.services;
 
+import com.devsuperior.dscommerce.cache.ProductCountCache;
+import com.devsuperior.dscommerce.cache.ProductDetailCache;
 import com.devsuperior.dscommerce.dto.CategoryDTO;
+import com.devsuperior.dscommerce.dto.CursorPageDTO;
 import com.devsuperior.dscommerce.dto.ProductDTO;
 import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.dto.ProductStockDTO;
 import com.devsuperior.dscommerce.entities.Category;
 import com.devsuperior.dscommerce.entities.Product;
 import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.search.ProductNameIndex;
+import com.devsuperior.dscommerce.services.exceptions.BadRequestException;
 import com.devsuperior.dscommerce.services.exceptions.DatabaseException;
 import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import com.devsuperior.dscommerce.utils.CursorUtil;
+import com.devsuperior.dscommerce.utils.TransactionUtil;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 public class ProductService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     @Autowired
     ProductRepository productRepository;
 
-    @Transactional(readOnly = true)
+    @Autowired
+    ProductNameIndex productNameIndex;
+
+    @Autowired
+    ProductDetailCache productDetailCache;
+
+    @Autowired
+    ProductCountCache productCountCache;
+
+    // Sin transaccion propia: un acierto en cache no debe tomar una conexion del pool
     public ProductDTO findById(Long id) {
-        Product result = productRepository.findById(id).orElseThrow(
-                () -> new ResourceNotFoundException("Recurso no encontrado"));
-        return new ProductDTO(result);
+        return productDetailCache.get(id, key -> {
+            Product result = productRepository.searchByIdWithCategories(key).orElseThrow(
+                    () -> new ResourceNotFoundException("Recurso no encontrado"));
+            return new ProductDTO(result);
+        });
     }
 //
 //    @Transactional(readOnly = true)
@@ -36,10 +68,76 @@ public class ProductService {
 //        return result.map(ProductMinDTO::new);
 //    }
 
+    // El COUNT solo corre si la pagina no alcanza para deducir el total, y queda en cache por termino
     @Transactional(readOnly = true)
     public Page<ProductMinDTO> findAll(String name, Pageable pageable) {
-        Page<Product> result = productRepository.searchByName(name, pageable);
-        return result.map(ProductMinDTO::new);
+        if (!usesNameIndex(name, pageable)) {
+            List<ProductMinDTO> content = productRepository.searchSliceByName(name, pageable).getContent();
+            return PageableExecutionUtils.getPage(content, pageable,
+                    () -> productCountCache.get(name, productRepository::countByName));
+        }
+        List<Long> ids = productNameIndex.search(name, pageable.getSort(), offsetOf(pageable), limitOf(pageable, 0));
+        return PageableExecutionUtils.getPage(findMinByIds(ids), pageable,
+                () -> productCountCache.get(name, productNameIndex::count));
+    }
+
+    // Total aproximado (cota superior) tomado del indice en memoria, sin COUNT
+    @Transactional(readOnly = true)
+    public Page<ProductMinDTO> findAllEstimated(String name, Pageable pageable) {
+        if (usesNameIndex(name, pageable)) {
+            return findAll(name, pageable);
+        }
+        Slice<ProductMinDTO> slice = productRepository.searchSliceByName(name, pageable);
+        long seen = pageable.getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        long total = Math.max(productNameIndex.estimate(name), seen);
+        return new PageImpl<>(slice.getContent(), pageable, total);
+    }
+
+    // Sin total: pensado para scroll infinito, solo informa si hay una pagina siguiente
+    @Transactional(readOnly = true)
+    public Slice<ProductMinDTO> findAllSlice(String name, Pageable pageable) {
+        if (!usesNameIndex(name, pageable)) {
+            return productRepository.searchSliceByName(name, pageable);
+        }
+        List<Long> ids = productNameIndex.search(name, pageable.getSort(), offsetOf(pageable), limitOf(pageable, 1));
+        boolean hasNext = pageable.isPaged() && ids.size() > pageable.getPageSize();
+        List<Long> page = hasNext ? ids.subList(0, pageable.getPageSize()) : ids;
+        return new SliceImpl<>(findMinByIds(page), pageable, hasNext);
+    }
+
+    // Paginacion por clave: el cursor guarda el orden, el ultimo id y, si corresponde, el ultimo nombre
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductMinDTO> findAllAfter(String name, String after, int size, String sort) {
+        if (!sort.equals("id") && !sort.equals("name")) {
+            throw new BadRequestException("Orden no soportado");
+        }
+        size = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        Long lastId = 0L;
+        String lastName = "";
+        if (after != null && !after.isEmpty()) {
+            String[] cursor = CursorUtil.decode(after, sort.equals("name") ? 3 : 2);
+            if (!cursor[0].equals(sort)) {
+                throw new BadRequestException("Cursor invalido");
+            }
+            lastId = parseId(cursor[1]);
+            lastName = sort.equals("name") ? cursor[2] : "";
+        }
+
+        List<ProductMinDTO> result = sort.equals("name")
+                ? productRepository.searchByNameAfterName(name, lastName, lastId, limit)
+                : productRepository.searchByNameAfterId(name, lastId, limit);
+
+        String nextCursor = null;
+        if (result.size() > size) {
+            result = result.subList(0, size);
+            ProductMinDTO last = result.getLast();
+            nextCursor = sort.equals("name")
+                    ? CursorUtil.encode(sort, last.getId().toString(), last.getName())
+                    : CursorUtil.encode(sort, last.getId().toString());
+        }
+        return new CursorPageDTO<>(result, nextCursor);
     }
 
     // No valida si el producto existe
@@ -47,18 +145,44 @@ public class ProductService {
     public ProductDTO insert(ProductDTO dto) {
         Product entity = new Product();
         copyDtoToEntity(dto, entity);
+        copyInitialStock(dto, entity);
         entity = productRepository.save(entity);
+        indexName(entity);
+        TransactionUtil.afterCommit(productCountCache::invalidateAll);
 
         return new ProductDTO(entity);
     }
 
+    // Con ids de secuencia Hibernate agrupa los INSERT de tb_product y tb_product_category en lotes JDBC
+    @Transactional
+    public void insertAll(List<ProductDTO> dtos) {
+        List<Product> entities = new ArrayList<>(dtos.size());
+        for (ProductDTO dto : dtos) {
+            Product entity = new Product();
+            copyDtoToEntity(dto, entity);
+            copyInitialStock(dto, entity);
+            entities.add(entity);
+        }
+        productRepository.saveAll(entities);
+        for (Product entity : entities) {
+            indexName(entity);
+        }
+        TransactionUtil.afterCommit(productCountCache::invalidateAll);
+    }
+
     @Transactional
     public ProductDTO update(Long id, ProductDTO dto) {
         try {
             Product entity = productRepository.getReferenceById(id);
             copyDtoToEntity(dto, entity);
 
-            entity = productRepository.save(entity);
+            // El flush incrementa la version antes de armar el DTO, asi el ETag de la respuesta es el nuevo
+            entity = productRepository.saveAndFlush(entity);
+            indexName(entity);
+            TransactionUtil.afterCommit(() -> {
+                productDetailCache.invalidate(id);
+                productCountCache.invalidateAll();
+            });
             return new ProductDTO(entity);
         }
         catch(EntityNotFoundException e) {
@@ -66,6 +190,22 @@ public class ProductService {
         }
     }
 
+    // El stock no forma parte de ProductDTO, asi que no pasa por la cache de detalle ni cambia el ETag
+    @Transactional(readOnly = true)
+    public ProductStockDTO findStock(Long id) {
+        Integer stock = productRepository.searchStockById(id).orElseThrow(
+                () -> new ResourceNotFoundException("Recurso no encontrado"));
+        return new ProductStockDTO(id, stock);
+    }
+
+    @Transactional
+    public ProductStockDTO updateStock(Long id, ProductStockDTO dto) {
+        if (productRepository.updateStock(id, dto.getStock()) == 0) {
+            throw new ResourceNotFoundException("Recurso no encontrado");
+        }
+        return new ProductStockDTO(id, dto.getStock());
+    }
+
     @Transactional(propagation = Propagation.SUPPORTS)
     public void delete(Long id) {
         if (!productRepository.existsById(id)) {
@@ -73,12 +213,54 @@ public class ProductService {
         }
         try {
             productRepository.deleteById(id);
+            TransactionUtil.afterCommit(() -> {
+                productNameIndex.delete(id);
+                productDetailCache.invalidate(id);
+                productCountCache.invalidateAll();
+            });
         }
         catch (DataIntegrityViolationException e) {
             throw new DatabaseException("Falla en la integridad referencial");
         }
     }
 
+    private Long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException e) {
+            throw new BadRequestException("Cursor invalido");
+        }
+    }
+
+    // Terminos vacios o cortos no acotan nada en el indice: la base los resuelve con el indice (name, id)
+    private boolean usesNameIndex(String name, Pageable pageable) {
+        return productNameIndex.supports(name) && productNameIndex.supports(pageable.getSort());
+    }
+
+    private static long offsetOf(Pageable pageable) {
+        return pageable.isPaged() ? pageable.getOffset() : 0L;
+    }
+
+    private static int limitOf(Pageable pageable, int extra) {
+        return pageable.isPaged() ? pageable.getPageSize() + extra : Integer.MAX_VALUE;
+    }
+
+    private List<ProductMinDTO> findMinByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductMinDTO> products = productRepository.searchByIds(ids).stream()
+                .collect(Collectors.toMap(ProductMinDTO::getId, Function.identity()));
+        return ids.stream().filter(products::containsKey).map(products::get).toList();
+    }
+
+    private void indexName(Product entity) {
+        Long id = entity.getId();
+        String name = entity.getName();
+        TransactionUtil.afterCommit(() -> productNameIndex.put(id, name));
+    }
+
     private void copyDtoToEntity(ProductDTO dto, Product entity) {
         entity.setName(dto.getName());
         entity.setDescription(dto.getDescription());
@@ -91,6 +273,12 @@ public class ProductService {
             cat.setId(catDto.getId());
             entity.getCategories().add(cat);
         }
-        entity = productRepository.save(entity);
+    }
+
+    // La columna no es actualizable: el stock del DTO solo cuenta al insertar
+    private void copyInitialStock(ProductDTO dto, Product entity) {
+        if (dto.getStock() != null) {
+            entity.setStock(dto.getStock());
+        }
     }
 }
@@ -1,11 +1,17 @@
 package com.devsuperior.dscommerce.services;
 
+import com.devsuperior.dscommerce.cache.UserDetailsCache;
 import com.devsuperior.dscommerce.dto.UserDTO;
+import com.devsuperior.dscommerce.dto.UserRolesDTO;
 import com.devsuperior.dscommerce.entities.Role;
 import com.devsuperior.dscommerce.entities.User;
 import com.devsuperior.dscommerce.projections.UserDetailsProjection;
+import com.devsuperior.dscommerce.repositories.RoleRepository;
 import com.devsuperior.dscommerce.repositories.UserRepository;
+import com.devsuperior.dscommerce.services.exceptions.InvalidDataException;
+import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
 import com.devsuperior.dscommerce.utils.CustomUserUtil;
+import com.devsuperior.dscommerce.utils.TransactionUtil;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -21,18 +27,25 @@ public class UserService implements UserDetailsService {
     @Autowired
     private UserRepository repository;
 
+    @Autowired
+    private RoleRepository roleRepository;
+
     @Autowired
     private CustomUserUtil customUserUtil;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-        List<UserDetailsProjection> result = repository.searchUserAndRolesByEmail(username);
+        List<UserDetailsProjection> result = userDetailsCache.get(username, repository::searchUserAndRolesByEmail);
         if (result.isEmpty()) {
             throw new UsernameNotFoundException("Email not found");
         }
 
         User user = new User();
+        user.setId(result.getFirst().getUserId());
         user.setEmail(result.getFirst().getUsername());
         user.setPassword(result.getFirst().getPassword());
         for (UserDetailsProjection projection : result) {
@@ -42,10 +55,11 @@ public class UserService implements UserDetailsService {
         return user;
     }
 
+    // Solo para quien necesita la entidad completa: una consulta por id, tomado del token
     protected User authenticated() {
         try {
-            String username = customUserUtil.getLoggedUsername();
-            return repository.findByEmail(username).isPresent() ? repository.findByEmail(username).get() : null;
+            Long userId = customUserUtil.getLoggedUserId();
+            return repository.findById(userId).orElseThrow(() -> new UsernameNotFoundException("Email not found"));
         }
         catch (ClassCastException e) {
           throw new UsernameNotFoundException("Email not found");
@@ -58,4 +72,29 @@ public class UserService implements UserDetailsService {
         System.out.println(user.getId());
         return new UserDTO(user);
     }
+
+    // Reemplaza los roles del usuario. El flush solo toca tb_user_role y no dispara @PostUpdate en UserListener,
+    // asi que el email se desaloja de la cache de login a mano, recien cuando el cambio es visible
+    @Transactional
+    public UserDTO updateRoles(Long id, UserRolesDTO dto) {
+        User user = repository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Recurso no encontrado"));
+        List<Role> roles = roleRepository.findByAuthorityIn(dto.getRoles());
+
+        InvalidDataException exception = new InvalidDataException("Datos invalidos");
+        for (String authority : dto.getRoles()) {
+            if (roles.stream().noneMatch(role -> role.getAuthority().equals(authority))) {
+                exception.addError("roles", "Rol inexistente: " + authority);
+            }
+        }
+        if (!exception.getErrors().isEmpty()) {
+            throw exception;
+        }
+
+        user.getRoles().clear();
+        user.getRoles().addAll(roles);
+        String email = user.getEmail();
+        TransactionUtil.afterCommit(() -> userDetailsCache.evict(email));
+
+        return new UserDTO(user);
+    }
 }
@@ -0,0 +1,22 @@
+package com.devsuperior.dscommerce.services.exceptions;
+
+import com.devsuperior.dscommerce.dto.FieldMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InvalidDataException extends RuntimeException {
+    private final List<FieldMessage> errors = new ArrayList<>();
+
+    public InvalidDataException(String message) {
+        super(message);
+    }
+
+    public List<FieldMessage> getErrors() {
+        return errors;
+    }
+
+    public void addError(String fieldName, String message) {
+        errors.add(new FieldMessage(fieldName, message));
+    }
+}
@@ -0,0 +1,7 @@
+package com.devsuperior.dscommerce.services.exceptions;
+
+public class UnauthorizedException extends RuntimeException {
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+}
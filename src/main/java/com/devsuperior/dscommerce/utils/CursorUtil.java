@@ -0,0 +1,35 @@
+package com.devsuperior.dscommerce.utils;
+
+import com.devsuperior.dscommerce.services.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class CursorUtil {
+
+    private static final String SEPARATOR = "\n";
+
+    private CursorUtil() {
+
+    }
+
+    public static String encode(String... parts) {
+        byte[] bytes = String.join(SEPARATOR, parts).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // La ultima parte puede contener cualquier texto, por eso va al final
+    public static String[] decode(String cursor, int parts) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] result = value.split(SEPARATOR, parts);
+            if (result.length != parts) {
+                throw new BadRequestException("Cursor invalido");
+            }
+            return result;
+        }
+        catch (IllegalArgumentException e) {
+            throw new BadRequestException("Cursor invalido");
+        }
+    }
+}
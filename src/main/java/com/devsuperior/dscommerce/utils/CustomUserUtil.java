@@ -1,5 +1,6 @@
 package com.devsuperior.dscommerce.utils;
 
+import com.devsuperior.dscommerce.services.exceptions.UnauthorizedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -14,5 +15,20 @@ public class CustomUserUtil {
         return jwtPrincipal.getClaim("username");
     }
 
+    // El id viaja en el token, asi que identificar al usuario no requiere consultar la base.
+    // Sin JWT o sin el claim (tokens viejos o de otro emisor) no hay a quien atribuir la operacion: 401
+    public Long getLoggedUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof Jwt jwtPrincipal)
+                || !(jwtPrincipal.getClaims().get("userId") instanceof Number userId)) {
+            throw new UnauthorizedException("Usuario no autenticado");
+        }
+        return userId.longValue();
+    }
+
+    public boolean hasLoggedRole(String role) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication.getAuthorities().stream().anyMatch(authority -> authority.getAuthority().equals(role));
+    }
 
 }
@@ -0,0 +1,25 @@
+package com.devsuperior.dscommerce.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class TransactionUtil {
+
+    private TransactionUtil() {
+
+    }
+
+    // Ejecuta la accion solo si la transaccion actual confirma; sin transaccion la ejecuta enseguida
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.devsuperior.dscommerce.dto.CategoryDTO;
+import com.devsuperior.dscommerce.services.CategoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// Requests por segundo de GET /categories sirviendo la snapshot ya codificada, contra el camino anterior:
+// consulta a la base y serializacion de la lista en cada request (LegacyCategoryController)
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:categorylisting"
+})
+@AutoConfigureMockMvc
+@Import(CategoryListingBenchmark.LegacyCategoryController.class)
+public class CategoryListingBenchmark {
+
+    private static final int WARMUP = 5_000;
+    private static final int OPERATIONS = 20_000;
+
+    private static final RequestBuilder OLD = get("/benchmark/categories").accept(MediaType.APPLICATION_JSON);
+    private static final RequestBuilder JSON = get("/categories").accept(MediaType.APPLICATION_JSON);
+    private static final RequestBuilder GZIP = get("/categories").accept(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void findAllShouldServeMoreRequestsFromSnapshot() throws Exception {
+        // Una ronda completa antes de medir, para que ninguna variante pague el calentamiento de MockMvc
+        for (RequestBuilder request : List.of(OLD, JSON, GZIP)) {
+            Timings.run(WARMUP, () -> mockMvc.perform(request).andExpect(status().isOk()));
+        }
+        measure("query + serialize (old)", OLD);
+        measure("snapshot json", JSON);
+        measure("snapshot gzip", GZIP);
+    }
+
+    private void measure(String name, RequestBuilder request) throws Exception {
+        Timings timings = Timings.run(OPERATIONS, () -> mockMvc.perform(request).andExpect(status().isOk()));
+        System.out.println(timings.summary(name));
+    }
+
+    @RestController
+    static class LegacyCategoryController {
+
+        @Autowired
+        private CategoryService categoryService;
+
+        @GetMapping("/benchmark/categories")
+        public ResponseEntity<List<CategoryDTO>> findAll() {
+            return ResponseEntity.ok(categoryService.findAll());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.config.authorization.JwtSigningKeys;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.authorization.config.annotation.web.configuration.OAuth2AuthorizationServerConfiguration;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Costo de firmar y verificar un access token como los que emite el token endpoint, y de generar la clave al arrancar
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtSigningBenchmark {
+
+    @Param({"RS256", "ES256"})
+    public String algorithm;
+
+    private JwtEncoder encoder;
+    private JwtDecoder decoder;
+    private JwsHeader header;
+    private JwtClaimsSet claims;
+    private String token;
+
+    @Setup
+    public void setup() {
+        JwtSigningKeys keys = JwtSigningKeys.generate(algorithm);
+        encoder = new NimbusJwtEncoder(keys.signingSource());
+        decoder = OAuth2AuthorizationServerConfiguration.jwtDecoder(keys);
+        header = JwsHeader.with(keys.getAlgorithm()).keyId(keys.getKeyId()).build();
+        Instant now = Instant.now();
+        claims = JwtClaimsSet.builder()
+                .issuer("http://localhost:8080")
+                .subject("myclientid")
+                .audience(List.of("myclientid"))
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(86400))
+                .claim("scope", List.of("read", "write"))
+                .claim("authorities", new ArrayList<>(List.of("ROLE_CLIENT", "ROLE_ADMIN")))
+                .claim("username", "alex@gmail.com")
+                .claim("userId", 2L)
+                .build();
+        token = sign().getTokenValue();
+    }
+
+    @Benchmark
+    public Jwt sign() {
+        return encoder.encode(JwtEncoderParameters.from(header, claims));
+    }
+
+    @Benchmark
+    public Jwt verify() {
+        return decoder.decode(token);
+    }
+
+    @Benchmark
+    public JwtSigningKeys generateKey() {
+        return JwtSigningKeys.generate(algorithm);
+    }
+
+    @Test
+    public void run() throws RunnerException {
+        new Runner(new OptionsBuilder().include(getClass().getName()).build()).run();
+    }
+}
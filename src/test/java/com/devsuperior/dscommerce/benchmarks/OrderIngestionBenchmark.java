@@ -0,0 +1,69 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.dto.OrderItemDTO;
+import com.devsuperior.dscommerce.services.OrderIngestionService;
+import com.devsuperior.dscommerce.services.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+// Ordenes por segundo y p99 con requests concurrentes: una transaccion y un commit por orden (OrderService.insert)
+// contra el escritor unico que confirma lotes (OrderIngestionService.insert)
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:orderingestion",
+        "orders.ingestion.enabled=true"
+})
+public class OrderIngestionBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int WARMUP = 200;
+    private static final int OPERATIONS = 500;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderIngestionService orderIngestionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("UPDATE tb_product SET stock = 1000000000");
+    }
+
+    @Test
+    public void insertThroughputPerRequestCommitVsIngestion() throws Exception {
+        OrderDTO dto = order();
+        measure("commit per request", () -> orderService.insert(dto));
+        measure("ingestion batches", () -> orderIngestionService.insert(dto));
+    }
+
+    private void measure(String name, Timings.Operation operation) throws Exception {
+        Timings.run(THREADS, WARMUP, OrderIngestionBenchmark::login, operation);
+        System.out.println(Timings.run(THREADS, OPERATIONS, OrderIngestionBenchmark::login, operation)
+                .summary(name + " (" + THREADS + " threads)"));
+    }
+
+    // Tres items, como un carrito tipico; todos los hilos compran lo mismo y compiten por las mismas filas de stock
+    private static OrderDTO order() {
+        OrderDTO dto = new OrderDTO();
+        dto.getItems().add(new OrderItemDTO(1L, null, null, 1, null));
+        dto.getItems().add(new OrderItemDTO(2L, null, null, 2, null));
+        dto.getItems().add(new OrderItemDTO(3L, null, null, 1, null));
+        return dto;
+    }
+
+    private static void login() {
+        Jwt jwt = Jwt.withTokenValue("benchmark").header("alg", "none").subject("maria@gmail.com").claim("userId", 1L).build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+}
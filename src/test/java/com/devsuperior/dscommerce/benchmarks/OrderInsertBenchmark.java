@@ -0,0 +1,74 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.dto.OrderItemDTO;
+import com.devsuperior.dscommerce.services.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Latencia de OrderService.insert (validacion, reserva de stock, INSERT de la orden y sus items, commit)
+// con carritos de 1, 10 y 100 productos distintos
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:orderinsert"
+})
+public class OrderInsertBenchmark {
+
+    private static final int PRODUCTS = 100;
+    private static final long FIRST_PRODUCT_ID = 1001L;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = FIRST_PRODUCT_ID; id < FIRST_PRODUCT_ID + PRODUCTS; id++) {
+            rows.add(new Object[] { id, "Benchmark product " + id, 10.0 });
+        }
+        jdbcTemplate.batchUpdate("MERGE INTO tb_product (id, name, price, stock, version) KEY (id) VALUES (?, ?, ?, 0, 0)", rows);
+        // Stock de sobra para que ninguna corrida se quede sin unidades
+        jdbcTemplate.update("UPDATE tb_product SET stock = 1000000000");
+    }
+
+    @Test
+    public void insertLatencyByItemCount() throws Exception {
+        measure(1, 2_000, 10_000);
+        measure(10, 1_000, 5_000);
+        measure(100, 200, 1_000);
+    }
+
+    private void measure(int items, int warmup, int operations) throws Exception {
+        OrderDTO dto = order(items);
+        Timings.Operation operation = () -> orderService.insert(dto);
+        Timings.run(1, warmup, OrderInsertBenchmark::login, operation);
+        System.out.println(Timings.run(1, operations, OrderInsertBenchmark::login, operation)
+                .summary("insert " + items + " items"));
+    }
+
+    private static OrderDTO order(int items) {
+        OrderDTO dto = new OrderDTO();
+        for (long id = FIRST_PRODUCT_ID; id < FIRST_PRODUCT_ID + items; id++) {
+            dto.getItems().add(new OrderItemDTO(id, null, null, 1, null));
+        }
+        return dto;
+    }
+
+    // maria@gmail.com, CLIENT en import.sql; el servicio solo lee el claim userId
+    private static void login() {
+        Jwt jwt = Jwt.withTokenValue("benchmark").header("alg", "none").subject("maria@gmail.com").claim("userId", 1L).build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+}
@@ -0,0 +1,86 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+// Bytes asignados y tiempo por pagina del listado de productos: entidades completas mapeadas a ProductMinDTO
+// contra las consultas que construyen los DTO directamente, en la carga por ids (camino del indice de nombres)
+// y en la pagina con COUNT (camino LIKE). Con H2 en memoria la descripcion no se copia al leerla, asi que
+// la diferencia de bytes aqui es solo la de Hibernate; contra una base remota se suma el TEXT de cada fila
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:productlisting"
+})
+public class ProductListingBenchmark {
+
+    private static final int WARMUP = 5_000;
+    private static final int OPERATIONS = 20_000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void listingShouldAllocateLessWhenProjectingIntoDto() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        Pageable pageable = PageRequest.of(0, 20);
+        List<Long> ids = LongStream.rangeClosed(1, 20).boxed().toList();
+
+        // Camino anterior de ProductService.findMinByIds
+        Supplier<List<ProductMinDTO>> entitiesById = () -> transactionTemplate.execute(status ->
+                productRepository.findAllById(ids).stream().map(ProductMinDTO::new).toList());
+        Supplier<List<ProductMinDTO>> projectionById = () -> transactionTemplate.execute(status ->
+                productRepository.searchByIds(ids));
+
+        Assertions.assertEquals(entitiesById.get().size(), projectionById.get().size());
+        measure("by ids: entities + ProductMinDTO::new", entitiesById);
+        measure("by ids: constructor projection", projectionById);
+
+        // Camino anterior de ProductService.findAll
+        Supplier<Page<ProductMinDTO>> entities = () -> transactionTemplate.execute(status ->
+                productRepository.findAll(pageable).map(ProductMinDTO::new));
+        Supplier<Page<ProductMinDTO>> projection = () -> transactionTemplate.execute(status -> {
+            List<ProductMinDTO> content = productRepository.searchSliceByName("", pageable).getContent();
+            return PageableExecutionUtils.getPage(content, pageable, () -> productRepository.countByName(""));
+        });
+
+        Assertions.assertEquals(entities.get().getContent().size(), projection.get().getContent().size());
+        measure("page + count: entities + ProductMinDTO::new", entities);
+        measure("page + count: constructor projection", projection);
+    }
+
+    private static void measure(String name, Supplier<?> operation) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) {
+            operation.get();
+        }
+        Timings timings = Timings.run(OPERATIONS, operation::get);
+        // Timings mide en otro hilo: las asignaciones se cuentan con una corrida aparte en este
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < OPERATIONS; i++) {
+            operation.get();
+        }
+        long bytes = threads.getCurrentThreadAllocatedBytes() - before;
+        System.out.println(timings.summary(name));
+        System.out.printf(Locale.ROOT, "%-48s %10d bytes/op%n", name, bytes / OPERATIONS);
+    }
+}
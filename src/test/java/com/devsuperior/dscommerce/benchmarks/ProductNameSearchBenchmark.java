@@ -0,0 +1,138 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.DscommerceApplication;
+import com.devsuperior.dscommerce.dto.ProductMinDTO;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.search.ProductNameIndex;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Primera pagina de GET /products?name= ordenada por nombre, con su total: UPPER LIKE contra el indice de trigramas.
+// Ninguno de los dos caminos usa la cache de totales, para comparar el costo de resolver cada busqueda
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ProductNameSearchBenchmark {
+
+    private static final String[] BRANDS = {"Acme", "Nova", "Orion", "Vertex", "Zenith", "Apex", "Lumen", "Polar",
+            "Quanta", "Stellar", "Titan", "Echo", "Helix", "Nimbus", "Pulse", "Summit"};
+
+    private static final String[] PRODUCTS = {"Headset", "Keyboard", "Mouse", "Monitor", "Laptop", "Tablet", "Camera",
+            "Speaker", "Router", "Printer", "Charger", "Drone", "Watch", "Projector", "Microphone", "Webcam", "Console",
+            "Controller", "Television", "Blender", "Toaster", "Kettle", "Vacuum", "Heater", "Fan", "Lamp", "Backpack",
+            "Jacket", "Sneakers", "Sandals", "Helmet", "Bicycle", "Scooter", "Skateboard", "Tent", "Sleeping Bag",
+            "Cooler", "Grill", "Chair", "Desk", "Sofa", "Mattress", "Pillow", "Blanket", "Curtain", "Rug", "Mirror",
+            "Shelf", "Cabinet", "Drill", "Hammer", "Wrench", "Saw", "Ladder", "Paint", "Brush", "Notebook", "Pen",
+            "Stapler", "Calculator", "Guitar", "Piano", "Violin", "Drum", "Ukulele", "Novel", "Cookbook", "Atlas",
+            "Puzzle", "Board Game", "Doll", "Robot", "Kite", "Ball", "Racket", "Glove", "Bat", "Treadmill", "Dumbbell",
+            "Yoga Mat", "Perfume", "Shampoo", "Razor", "Toothbrush", "Sunscreen", "Wallet", "Belt", "Scarf", "Hat",
+            "Sunglasses", "Umbrella", "Suitcase", "Thermos", "Mug", "Pan", "Knife", "Plate", "Glass", "Bottle"};
+
+    private static final String[] EDITIONS = {"Pro", "Max", "Mini", "Plus", "Lite", "Ultra", "Air", "Neo", "One", "X"};
+
+    @Param({"100000", "1000000"})
+    public int products;
+
+    // 'headset' aparece en ~1% de los nombres; 'lord of' solo en el producto 1 de import.sql
+    @Param({"headset", "lord of"})
+    public String term;
+
+    private final Pageable pageable = PageRequest.of(0, 12, Sort.by("name"));
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private ProductNameIndex productNameIndex;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(DscommerceApplication.class)
+                .run("--server.port=0", "--spring.jpa.show-sql=false", "--logging.level.root=WARN");
+        productRepository = context.getBean(ProductRepository.class);
+        productNameIndex = context.getBean(ProductNameIndex.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+
+        seed(context.getBean(JdbcTemplate.class));
+        productNameIndex.rebuild();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // Lo que hacia findAll antes del indice: la pagina y el COUNT, los dos con UPPER(name) LIKE '%term%'
+    @Benchmark
+    public long likeQuery() {
+        return transactionTemplate.execute(status -> {
+            List<ProductMinDTO> content = productRepository.searchSliceByName(term, pageable).getContent();
+            return content.size() + productRepository.countByName(term);
+        });
+    }
+
+    // Ids y total desde el indice; la base solo lee las filas de la pagina
+    @Benchmark
+    public long nameIndex() {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = productNameIndex.search(term, pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+            List<ProductMinDTO> content = ids.isEmpty() ? List.of() : productRepository.searchByIds(ids);
+            return content.size() + productNameIndex.count(term);
+        });
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Random random = new Random(42);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < products; i++) {
+            String name = BRANDS[random.nextInt(BRANDS.length)] + " " + PRODUCTS[random.nextInt(PRODUCTS.length)] + " "
+                    + EDITIONS[random.nextInt(EDITIONS.length)] + " " + (100 + random.nextInt(9900));
+            batch.add(new Object[] {1000L + i, name, 10.0 + random.nextInt(5000), "Producto de prueba " + i});
+            if (batch.size() == 10_000) {
+                insert(jdbcTemplate, batch);
+            }
+        }
+        insert(jdbcTemplate, batch);
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO tb_product (id, name, price, description, img_url, stock, version) "
+                + "VALUES (?, ?, ?, ?, NULL, 0, 0)", batch);
+        batch.clear();
+    }
+
+    @Test
+    public void run() throws RunnerException {
+        new Runner(new OptionsBuilder().include(getClass().getName()).build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Arnes simple para los benchmarks que necesitan el contexto de Spring: latencia de cada llamada,
+// throughput de la corrida completa y percentiles. Los micro benchmarks sin contexto usan JMH
+final class Timings {
+
+    interface Operation {
+        void run() throws Exception;
+    }
+
+    private final long[] latencies;
+    private final long elapsedNanos;
+
+    private Timings(long[] latencies, long elapsedNanos) {
+        this.latencies = latencies;
+        this.elapsedNanos = elapsedNanos;
+        Arrays.sort(this.latencies);
+    }
+
+    // Cada hilo corre threadSetup una vez (por ejemplo, el usuario logueado) y despues la operacion 'operations' veces
+    static Timings run(int threads, int operations, Operation threadSetup, Operation operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    threadSetup.run();
+                    long[] result = new long[operations];
+                    start.await();
+                    for (int i = 0; i < operations; i++) {
+                        long begin = System.nanoTime();
+                        operation.run();
+                        result[i] = System.nanoTime() - begin;
+                    }
+                    return result;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            long[] all = new long[threads * operations];
+            for (int t = 0; t < threads; t++) {
+                System.arraycopy(futures.get(t).get(), 0, all, t * operations, operations);
+            }
+            return new Timings(all, System.nanoTime() - begin);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static Timings run(int operations, Operation operation) throws Exception {
+        return run(1, operations, () -> { }, operation);
+    }
+
+    double throughput() {
+        return latencies.length / (elapsedNanos / 1e9);
+    }
+
+    double percentileMicros(double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * latencies.length) - 1;
+        return latencies[Math.max(0, index)] / 1e3;
+    }
+
+    double meanMicros() {
+        return Arrays.stream(latencies).average().orElse(0) / 1e3;
+    }
+
+    String summary(String name) {
+        return String.format(Locale.ROOT, "%-48s %10.1f ops/s   mean %9.1f us   p50 %9.1f us   p99 %9.1f us   (n=%d)",
+                name, throughput(), meanMicros(), percentileMicros(50), percentileMicros(99), latencies.length);
+    }
+}
@@ -0,0 +1,51 @@
+package com.devsuperior.dscommerce.benchmarks;
+
+import com.devsuperior.dscommerce.utils.TokenUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Logins por segundo en /oauth2/token (grant password) con 1 y 8 hilos. Se mide aparte un BCrypt matches
+// para ver cuanto del request es el hash de la clave y cuanto el resto (firma del JWT, store, filtros)
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:tokenendpoint"
+})
+@AutoConfigureMockMvc
+public class TokenEndpointBenchmark {
+
+    private static final String[] USERS = { "maria@gmail.com", "alex@gmail.com" };
+    private static final String PASSWORD = "123456";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    public void tokenThroughputByThreads() throws Exception {
+        String hash = passwordEncoder.encode(PASSWORD);
+        Timings.run(20, () -> passwordEncoder.matches(PASSWORD, hash));
+        System.out.println(Timings.run(100, () -> passwordEncoder.matches(PASSWORD, hash)).summary("bcrypt matches"));
+
+        measure(1, 20, 100);
+        measure(8, 5, 25);
+    }
+
+    private void measure(int threads, int warmup, int operations) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        Timings.Operation login = () ->
+                tokenUtil.obtainAccessToken(mockMvc, USERS[next.getAndIncrement() % USERS.length], PASSWORD);
+        Timings.run(threads, warmup, () -> { }, login);
+        System.out.println(Timings.run(threads, operations, () -> { }, login).summary("/oauth2/token (" + threads + " threads)"));
+    }
+}
@@ -0,0 +1,231 @@
+package com.devsuperior.dscommerce.cache;
+
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.dto.OrderItemDTO;
+import com.devsuperior.dscommerce.entities.Order;
+import com.devsuperior.dscommerce.factories.OrderFactory;
+import com.devsuperior.dscommerce.services.exceptions.InvalidDataException;
+import com.devsuperior.dscommerce.services.exceptions.ServiceUnavailableException;
+import com.devsuperior.dscommerce.utils.CustomUserUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class OrderIdempotencyCacheTests {
+
+    private OrderIdempotencyCache orderIdempotencyCache;
+
+    private OrderDTO request, otherRequest, created;
+
+    private String key;
+
+    private CustomUserUtil customUserUtil;
+
+    // Reloj de la cache controlado por el test
+    private AtomicLong nanos;
+
+    @BeforeEach
+    void setUp() {
+        customUserUtil = Mockito.mock(CustomUserUtil.class);
+        Mockito.when(customUserUtil.getLoggedUsername()).thenReturn("maria@gmail.com");
+
+        nanos = new AtomicLong();
+        orderIdempotencyCache = create(100L, 10);
+
+        key = "7f1c2b9e";
+
+        request = new OrderDTO();
+        request.getItems().add(new OrderItemDTO(1L, null, 0.0, 2, null));
+
+        otherRequest = new OrderDTO();
+        otherRequest.getItems().add(new OrderItemDTO(1L, null, 0.0, 3, null));
+
+        Order order = OrderFactory.createOrder();
+        created = new OrderDTO(order);
+    }
+
+    @Test
+    public void executeShouldReturnCachedResultWithoutRunningActionWhenKeyIsReplayed() {
+        AtomicInteger calls = new AtomicInteger();
+
+        OrderDTO first = orderIdempotencyCache.execute(key, request, () -> {
+            calls.incrementAndGet();
+            return created;
+        });
+        OrderDTO second = orderIdempotencyCache.execute(key, request, () -> {
+            calls.incrementAndGet();
+            return created;
+        });
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void executeShouldThrowInvalidDataExceptionWhenKeyIsReusedWithOtherRequest() {
+        orderIdempotencyCache.execute(key, request, () -> created);
+
+        Assertions.assertThrows(InvalidDataException.class, () -> {
+            orderIdempotencyCache.execute(key, otherRequest, () -> created);
+        });
+    }
+
+    @Test
+    public void executeShouldRunActionAgainWhenPreviousAttemptFailed() {
+        Assertions.assertThrows(IllegalStateException.class, () -> {
+            orderIdempotencyCache.execute(key, request, () -> {
+                throw new IllegalStateException();
+            });
+        });
+
+        OrderDTO result = orderIdempotencyCache.execute(key, request, () -> created);
+
+        Assertions.assertSame(created, result);
+    }
+
+    @Test
+    public void executeShouldRunActionAgainWhenResultExpired() {
+        AtomicInteger calls = new AtomicInteger();
+
+        orderIdempotencyCache.execute(key, request, () -> {
+            calls.incrementAndGet();
+            return created;
+        });
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(601));
+        orderIdempotencyCache.execute(key, request, () -> {
+            calls.incrementAndGet();
+            return created;
+        });
+
+        Assertions.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void executeShouldRunActionOnceWhenDuplicatesArriveConcurrently() throws Exception {
+        int duplicates = 7;
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(duplicates + 1);
+        try {
+            Future<OrderDTO> owner = executor.submit(() -> orderIdempotencyCache.execute(key, request, () -> {
+                calls.incrementAndGet();
+                running.countDown();
+                await(release);
+                return created;
+            }));
+            Assertions.assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            List<Future<OrderDTO>> results = new ArrayList<>();
+            for (int i = 0; i < duplicates; i++) {
+                results.add(executor.submit(() -> orderIdempotencyCache.execute(key, request, () -> {
+                    calls.incrementAndGet();
+                    return created;
+                })));
+            }
+            release.countDown();
+
+            Assertions.assertSame(created, owner.get(5, TimeUnit.SECONDS));
+            for (Future<OrderDTO> result : results) {
+                Assertions.assertSame(created, result.get(5, TimeUnit.SECONDS));
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void executeShouldKeepKeyInFlightWhenCacheEvictsCompletedResults() throws Exception {
+        orderIdempotencyCache = create(1L, 10);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<OrderDTO> owner = executor.submit(() -> orderIdempotencyCache.execute(key, request, () -> {
+                calls.incrementAndGet();
+                running.countDown();
+                await(release);
+                return created;
+            }));
+            Assertions.assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            // Llenan la cache, de tamanio 1, mientras la primera clave sigue en curso
+            for (int i = 0; i < 10; i++) {
+                orderIdempotencyCache.execute("other-" + i, request, () -> created);
+            }
+            Future<OrderDTO> duplicate = executor.submit(() -> orderIdempotencyCache.execute(key, request, () -> {
+                calls.incrementAndGet();
+                return created;
+            }));
+            release.countDown();
+
+            Assertions.assertSame(created, owner.get(5, TimeUnit.SECONDS));
+            Assertions.assertSame(created, duplicate.get(5, TimeUnit.SECONDS));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void executeShouldThrowServiceUnavailableExceptionWhenTooManyKeysAreInFlight() throws Exception {
+        orderIdempotencyCache = create(100L, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<OrderDTO> owner = executor.submit(() -> orderIdempotencyCache.execute(key, request, () -> {
+                running.countDown();
+                await(release);
+                return created;
+            }));
+            Assertions.assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            Assertions.assertThrows(ServiceUnavailableException.class, () -> {
+                orderIdempotencyCache.execute("other", request, () -> created);
+            });
+
+            release.countDown();
+            Assertions.assertSame(created, owner.get(5, TimeUnit.SECONDS));
+            Assertions.assertSame(created, orderIdempotencyCache.execute("other", request, () -> created));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private OrderIdempotencyCache create(Long maxSize, Integer maxInFlight) {
+        OrderIdempotencyCache result = new OrderIdempotencyCache(maxSize, 600L, maxInFlight, nanos::get);
+        ReflectionTestUtils.setField(result, "customUserUtil", customUserUtil);
+        return result;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("El test no libero la accion");
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.devsuperior.dscommerce.config.authorization;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CaffeineOAuth2AuthorizationServiceTests {
+
+    private CaffeineOAuth2AuthorizationService authorizationService;
+
+    private AtomicLong nanos;
+
+    private RegisteredClient registeredClient;
+
+    @BeforeEach
+    void setUp() {
+        nanos = new AtomicLong();
+        authorizationService = new CaffeineOAuth2AuthorizationService(2L, Duration.ofSeconds(60), nanos::get);
+
+        registeredClient = RegisteredClient.withId("myclientid")
+                .clientId("myclientid")
+                .clientSecret("secret")
+                .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+                .authorizationGrantType(new AuthorizationGrantType("password"))
+                .build();
+    }
+
+    @Test
+    public void findByTokenShouldReturnAuthorizationWhenAccessTokenWasSaved() {
+        OAuth2Authorization authorization = authorization("1", "token-1");
+        authorizationService.save(authorization);
+
+        Assertions.assertSame(authorization, authorizationService.findById("1"));
+        Assertions.assertSame(authorization, authorizationService.findByToken("token-1", OAuth2TokenType.ACCESS_TOKEN));
+        Assertions.assertSame(authorization, authorizationService.findByToken("token-1", null));
+        Assertions.assertNull(authorizationService.findByToken("token-1", OAuth2TokenType.REFRESH_TOKEN));
+    }
+
+    @Test
+    public void findByTokenShouldReturnNullWhenAuthorizationWasRemoved() {
+        OAuth2Authorization authorization = authorization("1", "token-1");
+        authorizationService.save(authorization);
+
+        authorizationService.remove(authorization);
+
+        Assertions.assertNull(authorizationService.findById("1"));
+        Assertions.assertNull(authorizationService.findByToken("token-1", OAuth2TokenType.ACCESS_TOKEN));
+    }
+
+    @Test
+    public void findByIdShouldReturnNullWhenTokenLifetimeHasPassed() {
+        authorizationService.save(authorization("1", "token-1"));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+
+        Assertions.assertNull(authorizationService.findById("1"));
+        Assertions.assertNull(authorizationService.findByToken("token-1", OAuth2TokenType.ACCESS_TOKEN));
+    }
+
+    @Test
+    public void saveShouldEvictAuthorizationsWhenMaxSizeIsExceeded() {
+        for (int i = 0; i < 10; i++) {
+            authorizationService.save(authorization(String.valueOf(i), "token-" + i));
+        }
+        authorizationService.cleanUp();
+
+        Assertions.assertTrue(authorizationService.getStats().getSize() <= 2);
+    }
+
+    private OAuth2Authorization authorization(String id, String tokenValue) {
+        Instant issuedAt = Instant.now();
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, tokenValue,
+                issuedAt, issuedAt.plusSeconds(60));
+        return OAuth2Authorization.withRegisteredClient(registeredClient)
+                .id(id)
+                .principalName("myclientid")
+                .authorizationGrantType(new AuthorizationGrantType("password"))
+                .accessToken(accessToken)
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.devsuperior.dscommerce.config.authorization;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.authorization.config.annotation.web.configuration.OAuth2AuthorizationServerConfiguration;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+public class JwtSigningKeysTests {
+
+    // Keystore de prueba: key-2026-01 (RSA, certificado hasta 2026-07-20) y key-2026-07 (EC P-256)
+    private static final String KEYSTORE = "/jwt-keys.p12";
+
+    @Test
+    public void loadShouldSignWithActiveAliasAndVerifyWithAllKeys() {
+        JwtSigningKeys keys = load("2026-07-10T00:00:00Z");
+
+        Assertions.assertEquals("key-2026-07", keys.getKeyId());
+        Assertions.assertEquals(SignatureAlgorithm.ES256, keys.getAlgorithm());
+        Assertions.assertEquals(List.of("key-2026-01", "key-2026-07"), keyIds(keys));
+    }
+
+    @Test
+    public void loadShouldStopPublishingRetiredKeyWhenItsCertificateExpires() {
+        JwtSigningKeys keys = load("2026-08-01T00:00:00Z");
+
+        Assertions.assertEquals(List.of("key-2026-07"), keyIds(keys));
+    }
+
+    @Test
+    public void loadShouldThrowIllegalStateExceptionWhenActiveAliasDoesNotExist() {
+        Assertions.assertThrows(IllegalStateException.class, () -> {
+            JwtSigningKeys.load(getClass().getResourceAsStream(KEYSTORE), "PKCS12", "changeit", "key-2030-01");
+        });
+    }
+
+    @Test
+    public void decoderShouldAcceptTokensSignedWithActiveAndRetiredKeys() {
+        JwtSigningKeys keys = load("2026-07-10T00:00:00Z");
+        JwtDecoder decoder = OAuth2AuthorizationServerConfiguration.jwtDecoder(keys);
+        JWK retiredKey = keys.get(new JWKSelector(new JWKMatcher.Builder().keyID("key-2026-01").build()), null).get(0);
+
+        String active = encode(keys.signingSource(), keys.getAlgorithm());
+        String retired = encode(new ImmutableJWKSet<>(new JWKSet(retiredKey)), SignatureAlgorithm.RS256);
+
+        Assertions.assertEquals("maria@gmail.com", decoder.decode(active).getSubject());
+        Assertions.assertEquals("maria@gmail.com", decoder.decode(retired).getSubject());
+    }
+
+    @Test
+    public void generateShouldCreateKeyForRequestedAlgorithm() {
+        Assertions.assertEquals(SignatureAlgorithm.RS256, JwtSigningKeys.generate("RS256").getAlgorithm());
+        Assertions.assertEquals(SignatureAlgorithm.ES256, JwtSigningKeys.generate("ES256").getAlgorithm());
+        Assertions.assertThrows(IllegalStateException.class, () -> JwtSigningKeys.generate("EdDSA"));
+    }
+
+    private JwtSigningKeys load(String now) {
+        Clock clock = Clock.fixed(Instant.parse(now), ZoneOffset.UTC);
+        return JwtSigningKeys.load(getClass().getResourceAsStream(KEYSTORE), "PKCS12", "changeit", "key-2026-07", clock);
+    }
+
+    private static List<String> keyIds(JwtSigningKeys keys) {
+        return keys.get(new JWKSelector(new JWKMatcher.Builder().build()), null).stream().map(JWK::getKeyID).sorted().toList();
+    }
+
+    private static String encode(JWKSource<SecurityContext> source, SignatureAlgorithm algorithm) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder().subject("maria@gmail.com").issuedAt(now).expiresAt(now.plusSeconds(60)).build();
+        Jwt jwt = new NimbusJwtEncoder(source).encode(JwtEncoderParameters.from(JwsHeader.with(algorithm).build(), claims));
+        return jwt.getTokenValue();
+    }
+}
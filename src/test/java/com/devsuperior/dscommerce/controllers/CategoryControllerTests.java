@@ -1,6 +1,8 @@
 package com.devsuperior.dscommerce.controllers;
 
+import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -17,6 +19,9 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.devsuperior.dscommerce.cache.CategorySnapshot;
 import com.devsuperior.dscommerce.dto.CategoryDTO;
 import com.devsuperior.dscommerce.entities.Category;
 import com.devsuperior.dscommerce.services.CategoryService;
@@ -29,6 +34,9 @@ public class CategoryControllerTests {
 	@Autowired
 	private MockMvc mockMvc;
 
+	@Autowired
+	private ObjectMapper objectMapper;
+
 	@MockitoBean
 	private CategoryService service;
 
@@ -44,6 +52,7 @@ public class CategoryControllerTests {
 		listCategories = List.of(categoryDTO);
 
 		Mockito.when(service.findAll()).thenReturn(listCategories);
+		Mockito.when(service.findSnapshot()).thenReturn(CategorySnapshot.of(listCategories, objectMapper));
 	}
 
 	@Test
@@ -60,4 +69,17 @@ public class CategoryControllerTests {
 		result.andExpect(jsonPath("$[0].name").value("Home products"));
 	}
 
+	@Test
+	public void findAllShouldReturnGzipBodyWhenClientAcceptsGzip() throws Exception {
+
+		ResultActions result = 
+				mockMvc.perform(get("/categories")
+						.header("Accept-Encoding", "gzip, deflate")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(header().string("Content-Encoding", "gzip"));
+		result.andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")));
+	}
+
 }
@@ -1,6 +1,8 @@
 package com.devsuperior.dscommerce.controllers.it;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -37,4 +39,22 @@ public class CategoryControllerIT {
 		result.andExpect(jsonPath("$.[2].id").value(3L));
 		result.andExpect(jsonPath("$.[2].name").value("Computadores"));
 	}
+
+	@Test
+	public void findAllShouldReturnNotModifiedWhenETagMatches() throws Exception {
+		
+		String eTag = mockMvc.perform(get("/categories")
+					.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(header().exists("ETag"))
+				.andReturn().getResponse().getHeader("ETag");
+		
+		ResultActions result = 
+				mockMvc.perform(get("/categories")
+					.header("If-None-Match", eTag)
+					.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isNotModified());
+		result.andExpect(content().string(""));
+	}
 }
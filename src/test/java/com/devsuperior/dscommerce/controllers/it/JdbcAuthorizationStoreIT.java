@@ -0,0 +1,111 @@
+package com.devsuperior.dscommerce.controllers.it;
+
+import com.devsuperior.dscommerce.config.authorization.JdbcAuthorizationSweeper;
+import com.devsuperior.dscommerce.config.customgrant.CustomUserAuthorities;
+import com.devsuperior.dscommerce.utils.TokenUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.security.Principal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Base propia para no compartir tb_* ni oauth2_authorization con los contextos del resto de los IT
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:jdbcstore",
+        "security.authorization-store.sweep-batch-size=2"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "jdbc"})
+public class JdbcAuthorizationStoreIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OAuth2AuthorizationService authorizationService;
+
+    @Autowired
+    private JdbcAuthorizationSweeper sweeper;
+
+    @Value("${security.client-id}")
+    private String clientId;
+
+    @Value("${security.client-secret}")
+    private String clientSecret;
+
+    @Test
+    public void obtainAccessTokenShouldStoreAuthorizationThatIsReadBackAndIntrospectedWhenStoreIsJdbc() throws Exception {
+        String token = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+
+        Assertions.assertInstanceOf(JdbcOAuth2AuthorizationService.class, authorizationService);
+        OAuth2Authorization authorization = authorizationService.findByToken(token, OAuth2TokenType.ACCESS_TOKEN);
+        Assertions.assertNotNull(authorization);
+        Assertions.assertEquals("maria@gmail.com", authorization.getPrincipalName());
+
+        // Los atributos vuelven de la columna JSON con los tipos del login
+        Authentication principal = authorization.getAttribute(Principal.class.getName());
+        CustomUserAuthorities user = (CustomUserAuthorities) principal.getDetails();
+        Assertions.assertEquals(1L, user.getUserId());
+        Assertions.assertEquals("maria@gmail.com", user.getUsername());
+        Assertions.assertEquals(List.of("ROLE_CLIENT"), user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+
+        introspect(token)
+                .andExpect(jsonPath("$.active").value(true))
+                .andExpect(jsonPath("$.client_id").value(clientId))
+                .andExpect(jsonPath("$.username").value("maria@gmail.com"));
+    }
+
+    @Test
+    public void sweepShouldDeleteExpiredAuthorizationsInBatchesAndKeepValidOnes() throws Exception {
+        List<String> expired = List.of(
+                tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456"),
+                tokenUtil.obtainAccessToken(mockMvc, "alex@gmail.com", "123456"),
+                tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456"));
+        jdbcTemplate.update("UPDATE oauth2_authorization SET access_token_expires_at = ?",
+                Timestamp.from(Instant.now().minusSeconds(60)));
+        String valid = tokenUtil.obtainAccessToken(mockMvc, "alex@gmail.com", "123456");
+
+        // Con lotes de 2 el barrido necesita mas de una vuelta para las vencidas
+        sweeper.sweep();
+
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM oauth2_authorization", Integer.class));
+        for (String token : expired) {
+            introspect(token).andExpect(jsonPath("$.active").value(false));
+        }
+        introspect(valid).andExpect(jsonPath("$.active").value(true));
+    }
+
+    private ResultActions introspect(String token) throws Exception {
+        return mockMvc.perform(post("/oauth2/introspect")
+                        .param("token", token)
+                        .with(httpBasic(clientId, clientSecret)))
+                .andExpect(status().isOk());
+    }
+}
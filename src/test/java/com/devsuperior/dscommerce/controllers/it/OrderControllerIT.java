@@ -5,6 +5,13 @@ import com.devsuperior.dscommerce.entities.*;
 import com.devsuperior.dscommerce.factories.ProductFactory;
 import com.devsuperior.dscommerce.utils.TokenUtil;
 import com.devsuperior.dscommerce.factories.UserFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -32,6 +40,15 @@ public class OrderControllerIT {
     @Autowired
     private TokenUtil tokenUtil;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private String clientUsername, clientPassword, adminUsername, adminPassword;
     private String clientToken, adminToken;
     private Long existingOrderId;
@@ -122,4 +139,294 @@ public class OrderControllerIT {
         result.andExpect(jsonPath("$.total").exists());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void findByIdShouldLoadOrderDetailsInSingleStatement() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            mockMvc.perform(get("/orders/{id}", existingOrderId)
+                            .header("Authorization", "Bearer " + clientToken)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items[1].name").value("Macbook Pro"));
+
+            Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        }
+        finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    // Un producto inexistente al final corta la orden antes de reservar stock: solo se cuentan las lecturas
+    @Test
+    public void insertShouldLoadAllProductsInSingleStatementWhenCartIsLarge() throws Exception {
+        StringBuilder items = new StringBuilder();
+        for (long id = 1; id <= 25; id++) {
+            items.append("{\"productId\":").append(id).append(",\"quantity\":1},");
+        }
+        String jsonBody = "{\"items\":[" + items + "{\"productId\":1000,\"quantity\":1}]}";
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            ResultActions result = mockMvc.perform(post("/orders")
+                    .header("Authorization", "Bearer " + clientToken)
+                    .content(jsonBody)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaType.APPLICATION_JSON));
+
+            result.andExpect(status().isUnprocessableEntity());
+            result.andExpect(jsonPath("$.errors[0].fieldName").value("items[25].productId"));
+            // Solo los 25 productos del carrito: el cliente es una referencia por el id del token
+            Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        }
+        finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    public void insertShouldWriteOrderAndItemsInTwoBatchedStatements() throws Exception {
+        StringBuilder items = new StringBuilder();
+        for (long id = 1; id <= 10; id++) {
+            items.append(id == 1 ? "" : ",").append("{\"productId\":").append(id).append(",\"quantity\":2}");
+        }
+        String jsonBody = "{\"items\":[" + items + "]}";
+
+        mockMvc.perform(post("/orders")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .content(jsonBody)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            entityManager.flush();
+
+            Assertions.assertEquals(10, statistics.getEntityStatistics(OrderItem.class.getName()).getInsertCount());
+            Assertions.assertEquals(2, statistics.getPrepareStatementCount());
+        }
+        finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    public void insertShouldReturnSameOrderWhenIdempotencyKeyIsReplayed() throws Exception {
+        String jsonBody = "{\"items\":[{\"productId\":1,\"quantity\":2}]}";
+
+        String first = mockMvc.perform(post("/orders")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .header("Idempotency-Key", "order-it-replay")
+                        .content(jsonBody)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readTree(first).get("id").asLong();
+
+        ResultActions result = mockMvc.perform(post("/orders")
+                .header("Authorization", "Bearer " + clientToken)
+                .header("Idempotency-Key", "order-it-replay")
+                .content(jsonBody)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isCreated());
+        result.andExpect(jsonPath("$.id").value(id));
+    }
+
+    @Test
+    public void insertShouldReturnUnprocessableEntityWhenIdempotencyKeyIsReusedWithOtherItems() throws Exception {
+        mockMvc.perform(post("/orders")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .header("Idempotency-Key", "order-it-conflict")
+                        .content("{\"items\":[{\"productId\":1,\"quantity\":2}]}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated());
+
+        ResultActions result = mockMvc.perform(post("/orders")
+                .header("Authorization", "Bearer " + clientToken)
+                .header("Idempotency-Key", "order-it-conflict")
+                .content("{\"items\":[{\"productId\":2,\"quantity\":1}]}")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isUnprocessableEntity());
+        result.andExpect(jsonPath("$.errors[0].fieldName").value("Idempotency-Key"));
+    }
+
+    @Test
+    public void insertShouldReturnUnprocessableEntityWhenProductDoesNotExist() throws Exception {
+        String jsonBody = "{\"items\":[{\"productId\":1,\"quantity\":1},{\"productId\":1000,\"quantity\":1}]}";
+
+        ResultActions result = mockMvc.perform(post("/orders")
+                .header("Authorization", "Bearer " + clientToken)
+                .content(jsonBody)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isUnprocessableEntity());
+        result.andExpect(jsonPath("$.errors[0].fieldName").value("items[1].productId"));
+    }
+
+    @Test
+    public void insertShouldReturnStoredTotalAndItemCount() throws Exception {
+        String jsonBody = "{\"items\":[{\"productId\":1,\"quantity\":2},{\"productId\":3,\"quantity\":1}]}";
+
+        ResultActions result = mockMvc.perform(post("/orders")
+                .header("Authorization", "Bearer " + clientToken)
+                .content(jsonBody)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isCreated());
+        result.andExpect(jsonPath("$.total").value(1431.0));
+        result.andExpect(jsonPath("$.itemCount").value(3));
+    }
+
+    @Test
+    public void findDailyRevenueShouldReturnRevenuePerDayWhenAdminLogged() throws Exception {
+        ResultActions result = mockMvc.perform(get("/orders/revenue")
+                .param("start", "2022-07-01")
+                .param("end", "2022-08-31")
+                .header("Authorization", "Bearer " + adminToken)
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.length()").value(3));
+        result.andExpect(jsonPath("$[0].day").value("2022-07-25"));
+        result.andExpect(jsonPath("$[0].orders").value(1));
+        result.andExpect(jsonPath("$[0].revenue").value(1431.0));
+    }
+
+    @Test
+    public void findDailyRevenueShouldReturnForbiddenWhenClientLogged() throws Exception {
+        ResultActions result = mockMvc.perform(get("/orders/revenue")
+                .param("start", "2022-07-01")
+                .param("end", "2022-08-31")
+                .header("Authorization", "Bearer " + clientToken)
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void findTopOrdersShouldReturnOrdersSortedByTotalWhenAdminLogged() throws Exception {
+        ResultActions result = mockMvc.perform(get("/orders/top")
+                .param("size", "2")
+                .header("Authorization", "Bearer " + adminToken)
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.length()").value(2));
+        result.andExpect(jsonPath("$[0].id").value(1));
+        result.andExpect(jsonPath("$[0].total").value(1431.0));
+        result.andExpect(jsonPath("$[0].itemCount").value(3));
+        result.andExpect(jsonPath("$[1].id").value(2));
+    }
+
+    @Test
+    public void findTopOrdersShouldExcludeCanceledOrdersWhenAdminLogged() throws Exception {
+        entityManager.createQuery("UPDATE Order obj SET obj.status = :status WHERE obj.id = 1")
+                .setParameter("status", OrderStatus.CANCELED)
+                .executeUpdate();
+
+        ResultActions result = mockMvc.perform(get("/orders/top")
+                .param("size", "2")
+                .header("Authorization", "Bearer " + adminToken)
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.length()").value(2));
+        result.andExpect(jsonPath("$[0].id").value(2));
+        result.andExpect(jsonPath("$[1].id").value(3));
+    }
+
+    @Test
+    public void findMineShouldWalkClientOrdersFromNewestWhenFollowingNextCursor() throws Exception {
+        String content = mockMvc.perform(get("/orders")
+                        .param("mine", "")
+                        .param("size", "1")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(3))
+                .andExpect(jsonPath("$.content[0].total").value(90.5))
+                .andExpect(jsonPath("$.content[0].items").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(content).get("nextCursor").asText();
+
+        mockMvc.perform(get("/orders")
+                        .param("mine", "")
+                        .param("size", "1")
+                        .param("after", cursor)
+                        .header("Authorization", "Bearer " + clientToken)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").isEmpty())
+                .andExpect(jsonPath("$.last").value(true));
+    }
+
+    @Test
+    public void findMineShouldResolveClientFromTokenWithoutQueryingUsers() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            mockMvc.perform(get("/orders")
+                            .param("mine", "")
+                            .header("Authorization", "Bearer " + clientToken)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(2));
+
+            Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        }
+        finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    public void findMineShouldReturnBadRequestWhenCursorIsInvalid() throws Exception {
+        ResultActions result = mockMvc.perform(get("/orders")
+                .param("mine", "")
+                .param("after", "not-a-cursor")
+                .header("Authorization", "Bearer " + clientToken)
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void findByClientShouldReturnClientOrdersWhenAdminLogged() throws Exception {
+        ResultActions result = mockMvc.perform(get("/orders")
+                .param("clientId", "2")
+                .header("Authorization", "Bearer " + adminToken)
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.content.length()").value(1));
+        result.andExpect(jsonPath("$.content[0].id").value(2));
+        result.andExpect(jsonPath("$.content[0].itemCount").value(1));
+    }
+
+    @Test
+    public void findByClientShouldReturnForbiddenWhenClientLogged() throws Exception {
+        ResultActions result = mockMvc.perform(get("/orders")
+                .param("clientId", "2")
+                .header("Authorization", "Bearer " + clientToken)
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isForbidden());
+    }
+}
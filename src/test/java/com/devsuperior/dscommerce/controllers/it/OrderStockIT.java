@@ -0,0 +1,153 @@
+package com.devsuperior.dscommerce.controllers.it;
+
+import com.devsuperior.dscommerce.utils.TokenUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Sin @Transactional: cada orden confirma su propia transaccion, como en produccion
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class OrderStockIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    private String clientToken, adminToken;
+
+    private Long hotProductId, otherProductId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        clientToken = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+        adminToken = tokenUtil.obtainAccessToken(mockMvc, "alex@gmail.com", "123456");
+
+        hotProductId = 1L;
+        otherProductId = 2L;
+    }
+
+    @Test
+    public void insertShouldNeverOversellWhenThousandsOfOrdersCompeteForSameProduct() throws Exception {
+        int stock = 100;
+        int orders = 2000;
+        setStock(hotProductId, stock);
+        setStock(otherProductId, orders);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            // Una de cada diez ordenes va a otro producto: no debe quedar sin stock por la contencion del primero
+            Long productId = i % 10 == 0 ? otherProductId : hotProductId;
+            results.add(executor.submit(() -> insertOrder(productId)));
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+
+        int created = 0, rejected = 0;
+        for (Future<Integer> result : results) {
+            int httpStatus = result.get();
+            if (httpStatus == 201) {
+                created++;
+            }
+            else if (httpStatus == 422) {
+                rejected++;
+            }
+        }
+
+        int otherOrders = orders / 10;
+        Assertions.assertEquals(stock + otherOrders, created);
+        Assertions.assertEquals(orders - otherOrders - stock, rejected);
+
+        mockMvc.perform(get("/products/{id}/stock", hotProductId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(0));
+        mockMvc.perform(get("/products/{id}/stock", otherProductId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(orders - otherOrders));
+    }
+
+    @Test
+    public void insertShouldReturnUnprocessableEntityWhenStockIsNotEnough() throws Exception {
+        setStock(hotProductId, 1);
+
+        mockMvc.perform(post("/orders")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .content("{\"items\":[{\"productId\":" + hotProductId + ",\"quantity\":2}]}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.errors[0].fieldName").value("items"));
+
+        mockMvc.perform(get("/products/{id}/stock", hotProductId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(jsonPath("$.stock").value(1));
+    }
+
+    @Test
+    public void insertShouldReturnUnprocessableEntityAndKeepStockWhenQuantityIsNegative() throws Exception {
+        setStock(hotProductId, 10);
+
+        mockMvc.perform(post("/orders")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .content("{\"items\":[{\"productId\":" + hotProductId + ",\"quantity\":-500}]}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.errors[0].fieldName").value("items[0].quantity"));
+
+        mockMvc.perform(post("/orders")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .content("{\"items\":[{\"productId\":" + hotProductId + "}]}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.errors[0].fieldName").value("items[0].quantity"));
+
+        mockMvc.perform(get("/products/{id}/stock", hotProductId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(jsonPath("$.stock").value(10));
+    }
+
+    private void setStock(Long productId, int stock) throws Exception {
+        mockMvc.perform(put("/products/{id}/stock", productId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content("{\"stock\":" + stock + "}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
+    private int insertOrder(Long productId) throws Exception {
+        return mockMvc.perform(post("/orders")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .content("{\"items\":[{\"productId\":" + productId + ",\"quantity\":1}]}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getStatus();
+    }
+}
@@ -1,10 +1,19 @@
 package com.devsuperior.dscommerce.controllers.it;
 
+import com.devsuperior.dscommerce.cache.ProductDetailCache;
 import com.devsuperior.dscommerce.dto.ProductDTO;
 import com.devsuperior.dscommerce.entities.Category;
 import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.repositories.CategoryRepository;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
 import com.devsuperior.dscommerce.utils.TokenUtil;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,13 +21,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -35,6 +53,18 @@ public class ProductControllerIT {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductDetailCache productDetailCache;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
     private Product product;
 
     private ProductDTO productDTO;
@@ -103,6 +133,264 @@ public class ProductControllerIT {
         result.andExpect(jsonPath("$.content[0].price").value(90.5));
     }
 
+    @Test
+    public void findAllShouldReturnSliceWithoutTotalWhenCountIsNone() throws Exception {
+        ResultActions result = mockMvc.perform(get("/products?count=none&size=10&sort=price")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.content.length()").value(10));
+        result.andExpect(jsonPath("$.content[0].name").value("The Lord of the Rings"));
+        result.andExpect(jsonPath("$.last").value(false));
+        result.andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    public void findAllShouldReturnEstimatedTotalWhenCountIsEstimated() throws Exception {
+        ResultActions result = mockMvc.perform(get("/products?count=estimated&name=gamer&size=5&sort=price")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.content.length()").value(5));
+        result.andExpect(jsonPath("$.content[0].name").value("PC Gamer"));
+        result.andExpect(jsonPath("$.totalElements").value(21));
+    }
+
+    @Test
+    public void findAllShouldReturnBadRequestWhenCountModeIsUnknown() throws Exception {
+        ResultActions result = mockMvc.perform(get("/products?count=xpto")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void findByIdShouldExecuteSingleStatementWhenIdExists() throws Exception {
+        productDetailCache.invalidateAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            ResultActions result = mockMvc.perform(get("/products/{id}", existingProductId)
+                    .accept(MediaType.APPLICATION_JSON));
+
+            result.andExpect(status().isOk());
+            result.andExpect(jsonPath("$.id").value(existingProductId));
+            result.andExpect(jsonPath("$.categories.length()").value(2));
+            Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        }
+        finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    public void findByIdShouldNotQueryDatabaseWhenProductIsCached() throws Exception {
+        mockMvc.perform(get("/products/{id}", existingProductId)
+                .accept(MediaType.APPLICATION_JSON));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            ResultActions result = mockMvc.perform(get("/products/{id}", existingProductId)
+                    .accept(MediaType.APPLICATION_JSON));
+
+            result.andExpect(status().isOk());
+            result.andExpect(jsonPath("$.id").value(existingProductId));
+            Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+        }
+        finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    public void findByIdShouldReturnNotModifiedWhenETagMatches() throws Exception {
+        String eTag = mockMvc.perform(get("/products/{id}", existingProductId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        ResultActions result = mockMvc.perform(get("/products/{id}", existingProductId)
+                .header("If-None-Match", eTag)
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isNotModified());
+        result.andExpect(header().string("ETag", eTag));
+        result.andExpect(content().string(""));
+    }
+
+    // Sin transaccion de test: el cambio de categoria tiene que confirmarse para que corra el listener
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void findByIdShouldReturnNewCategoryNameWhenCategoryIsRenamed() throws Exception {
+        String eTag = mockMvc.perform(get("/products/{id}", existingProductId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categories[?(@.id == 2)].name").value("Eletrônicos"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        Category category = categoryRepository.findById(2L).orElseThrow();
+        category.setName("Electrónica");
+        categoryRepository.save(category);
+        try {
+            ResultActions result = mockMvc.perform(get("/products/{id}", existingProductId)
+                    .header("If-None-Match", eTag)
+                    .accept(MediaType.APPLICATION_JSON));
+
+            result.andExpect(status().isOk());
+            result.andExpect(jsonPath("$.categories[?(@.id == 2)].name").value("Electrónica"));
+        }
+        finally {
+            category.setName("Eletrônicos");
+            categoryRepository.save(category);
+        }
+    }
+
+    // El producto 2 tiene las categorias 2 y 3: intercambiar sus nombres no cambia el conjunto de ids ni de nombres
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void findByIdShouldReturnSwappedNamesWhenTwoCategoryNamesAreSwapped() throws Exception {
+        String eTag = mockMvc.perform(get("/products/{id}", existingProductId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        Category electronics = categoryRepository.findById(2L).orElseThrow();
+        Category computers = categoryRepository.findById(3L).orElseThrow();
+        electronics.setName("Computadores");
+        computers.setName("Eletrônicos");
+        categoryRepository.saveAll(List.of(electronics, computers));
+        try {
+            ResultActions result = mockMvc.perform(get("/products/{id}", existingProductId)
+                    .header("If-None-Match", eTag)
+                    .accept(MediaType.APPLICATION_JSON));
+
+            result.andExpect(status().isOk());
+            result.andExpect(header().string("ETag", not(eTag)));
+            result.andExpect(jsonPath("$.categories[?(@.id == 2)].name").value("Computadores"));
+            result.andExpect(jsonPath("$.categories[?(@.id == 3)].name").value("Eletrônicos"));
+        }
+        finally {
+            electronics.setName("Eletrônicos");
+            computers.setName("Computadores");
+            categoryRepository.saveAll(List.of(electronics, computers));
+        }
+    }
+
+    @Test
+    public void findByIdShouldReturnProductDTOWhenETagDoesNotMatch() throws Exception {
+        ResultActions result = mockMvc.perform(get("/products/{id}", existingProductId)
+                .header("If-None-Match", "\"0-99\"")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.id").value(existingProductId));
+    }
+
+    @Test
+    public void updateShouldReturnIncrementedVersionAndMatchingETagWhenAdminLogged() throws Exception {
+        String body = objectMapper.writeValueAsString(productDTO);
+
+        ResultActions result = mockMvc.perform(put("/products/{id}", existingProductId)
+                .header("Authorization", "Bearer " + adminToken)
+                .content(body)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.id").value(existingProductId));
+        result.andExpect(jsonPath("$.version").value(1));
+        result.andExpect(header().string("ETag", startsWith("\"2-1-")));
+    }
+
+    @Test
+    public void findAllAfterShouldReturnFirstPageAndNextCursorWhenAfterIsEmpty() throws Exception {
+        ResultActions result = mockMvc.perform(get("/products?after=&size=10")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.content.length()").value(10));
+        result.andExpect(jsonPath("$.content[0].id").value(1L));
+        result.andExpect(jsonPath("$.content[9].id").value(10L));
+        result.andExpect(jsonPath("$.nextCursor").isNotEmpty());
+    }
+
+    @Test
+    public void findAllAfterShouldWalkAllPagesWhenFollowingNextCursor() throws Exception {
+        String cursor = "";
+        int pages = 0;
+        long lastId = 0L;
+        do {
+            String json = mockMvc.perform(get("/products")
+                            .param("after", cursor)
+                            .param("size", "10")
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(json);
+            for (JsonNode item : page.get("content")) {
+                Assertions.assertTrue(item.get("id").asLong() > lastId);
+                lastId = item.get("id").asLong();
+            }
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        Assertions.assertEquals(3, pages);
+        Assertions.assertEquals(25L, lastId);
+    }
+
+    @Test
+    public void findAllAfterShouldReturnNamesInOrderWhenSortedByName() throws Exception {
+        ResultActions result = mockMvc.perform(get("/products?after=&size=2&sort=name&name=Gamer")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.content[0].name").value("PC Gamer"));
+        result.andExpect(jsonPath("$.content[1].name").value("PC Gamer Alfa"));
+        result.andExpect(jsonPath("$.nextCursor").isNotEmpty());
+    }
+
+    @Test
+    public void findAllAfterShouldReturnBadRequestWhenCursorIsInvalid() throws Exception {
+        ResultActions result = mockMvc.perform(get("/products?after=xpto")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void exportAllShouldStreamOneLinePerProductWhenAdminLogged() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get("/products/export")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        Assertions.assertEquals(25, lines.length);
+        JsonNode second = objectMapper.readTree(lines[1]);
+        Assertions.assertEquals(2L, second.get("id").asLong());
+        Assertions.assertEquals(2, second.get("categories").size());
+    }
+
+    @Test
+    public void exportAllShouldReturnForbiddenWhenClientLogged() throws Exception {
+        ResultActions result = mockMvc.perform(get("/products/export")
+                .header("Authorization", "Bearer " + clientToken)
+                .accept(MediaType.APPLICATION_NDJSON));
+
+        result.andExpect(status().isForbidden());
+    }
+
     @Test
     public void insertShouldReturnProductDTOWhenAdminLogged() throws Exception {
         String jsonBody = objectMapper.writeValueAsString(productDTO);
@@ -114,12 +402,118 @@ public class ProductControllerIT {
                         .accept(MediaType.APPLICATION_JSON));
 
         result.andExpect(status().isCreated());
-        result.andExpect(jsonPath("$.id").value(26));
+        // Los ids de secuencia que consumen otros tests no vuelven con el rollback
+        result.andExpect(jsonPath("$.id").value(greaterThan(25)));
         result.andExpect(jsonPath("$.name").value("PlayStation 5"));
         result.andExpect(jsonPath("$.price").value(600.0));
         result.andExpect(jsonPath("$.categories[0].id").value(2L));
     }
 
+    @Test
+    public void insertShouldSetInitialStockWithoutReturningItWhenAdminLoggedAndStockIsGiven() throws Exception {
+        ObjectNode body = objectMapper.valueToTree(productDTO);
+        body.put("stock", 7);
+
+        ResultActions result = mockMvc.perform(post("/products")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content(body.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isCreated());
+        result.andExpect(jsonPath("$.stock").doesNotExist());
+        long id = objectMapper.readTree(result.andReturn().getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(get("/products/{id}/stock", id)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(7));
+    }
+
+    @Test
+    public void insertShouldReturnUnprocessableEntityWhenAdminLoggedAndStockIsNegative() throws Exception {
+        ObjectNode body = objectMapper.valueToTree(productDTO);
+        body.put("stock", -1);
+
+        ResultActions result = mockMvc.perform(post("/products")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content(body.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isUnprocessableEntity());
+        result.andExpect(jsonPath("$.errors[0].fieldName").value("stock"));
+    }
+
+    @Test
+    public void insertAllShouldSetInitialStockWhenAdminLoggedAndRowsHaveStock() throws Exception {
+        product.setName("PlayStation 5 Pro");
+        ObjectNode withStock = objectMapper.valueToTree(new ProductDTO(product));
+        withStock.put("stock", 12);
+        product.setName("PlayStation 5 Slim");
+        String withoutStock = objectMapper.writeValueAsString(new ProductDTO(product));
+
+        mockMvc.perform(post("/products/batch")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content(withStock + "\n" + withoutStock + "\n")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        Assertions.assertEquals(12, stockOf("PlayStation 5 Pro"));
+        Assertions.assertEquals(0, stockOf("PlayStation 5 Slim"));
+    }
+
+    @Test
+    public void insertAllShouldImportValidRowsAndReportInvalidRowsWhenAdminLoggedAndBodyIsNdjson() throws Exception {
+        String validRow = objectMapper.writeValueAsString(productDTO);
+        product.setName("ab");
+        String invalidRow = objectMapper.writeValueAsString(new ProductDTO(product));
+        String body = validRow + "\n" + invalidRow + "\n" + validRow + "\n";
+
+        ResultActions result = mockMvc.perform(post("/products/batch")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.imported").value(2));
+        result.andExpect(jsonPath("$.failed").value(1));
+        result.andExpect(jsonPath("$.errors[0].row").value(2));
+        result.andExpect(jsonPath("$.errors[0].errors[0].fieldName").value("name"));
+    }
+
+    @Test
+    public void insertAllShouldImportAllRowsWhenAdminLoggedAndBodyIsJsonArray() throws Exception {
+        String body = objectMapper.writeValueAsString(List.of(productDTO, productDTO, productDTO));
+
+        ResultActions result = mockMvc.perform(post("/products/batch")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.imported").value(3));
+        result.andExpect(jsonPath("$.failed").value(0));
+    }
+
+    @Test
+    public void insertAllShouldReturnForbiddenWhenClientLogged() throws Exception {
+        String body = objectMapper.writeValueAsString(List.of(productDTO));
+
+        ResultActions result = mockMvc.perform(post("/products/batch")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isForbidden());
+    }
+
     @Test
     public void insertShouldReturnUnprocessableEntityWhenAdminLoggedAndInvalidName() throws Exception {
 
@@ -280,4 +674,12 @@ public class ProductControllerIT {
         result.andExpect(status().isUnauthorized());
 
     }
+
+    private Integer stockOf(String name) {
+        return productRepository.findAll().stream()
+                .filter(p -> p.getName().equals(name))
+                .findFirst()
+                .orElseThrow()
+                .getStock();
+    }
 }
@@ -0,0 +1,110 @@
+package com.devsuperior.dscommerce.controllers.it;
+
+import com.devsuperior.dscommerce.utils.TokenUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Cada login verifica dos hashes BCrypt (cliente y usuario): con costo 10 son ~0.2 s por login en un nucleo.
+// Aqui el secreto del cliente y los usuarios de prueba usan costo 4, asi miles de logins entran en segundos
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tokenendpoint",
+        "spring.main.allow-bean-definition-overriding=true"
+})
+@AutoConfigureMockMvc
+public class TokenEndpointIT {
+
+    private static final int USERS = 20;
+    private static final long FIRST_USER_ID = 100L;
+    private static final String PASSWORD = "123456";
+
+    @TestConfiguration
+    static class CheapPasswordEncoderConfig {
+
+        @Bean
+        public PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    @Autowired
+    private JwtDecoder jwtDecoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    // Usuarios pares CLIENT, impares CLIENT y ADMIN
+    @BeforeEach
+    void setUp() {
+        String hash = passwordEncoder.encode(PASSWORD);
+        for (long id = FIRST_USER_ID; id < FIRST_USER_ID + USERS; id++) {
+            jdbcTemplate.update("MERGE INTO tb_user (id, name, email, phone, password, birth_date) KEY (id) "
+                    + "VALUES (?, ?, ?, '900000000', ?, '2000-01-01')", id, "User " + id, email(id), hash);
+            jdbcTemplate.update("MERGE INTO tb_user_role (user_id, role_id) KEY (user_id, role_id) VALUES (?, 1)", id);
+            if (id % 2 == 1) {
+                jdbcTemplate.update("MERGE INTO tb_user_role (user_id, role_id) KEY (user_id, role_id) VALUES (?, 2)", id);
+            }
+        }
+    }
+
+    // Cada token tiene que llevar los claims de su propio usuario aunque los logins se pisen en el tiempo
+    @Test
+    public void obtainAccessTokenShouldIssueTokenWithOwnClaimsWhenLoginsRunConcurrently() throws Exception {
+        int logins = 2000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<String>> tokens = new ArrayList<>();
+        for (int i = 0; i < logins; i++) {
+            String username = email(userId(i));
+            tokens.add(executor.submit(() -> tokenUtil.obtainAccessToken(mockMvc, username, PASSWORD)));
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+
+        for (int i = 0; i < logins; i++) {
+            long userId = userId(i);
+            Jwt jwt = jwtDecoder.decode(tokens.get(i).get());
+            List<String> authorities = jwt.getClaim("authorities");
+
+            Assertions.assertEquals(email(userId), jwt.getClaimAsString("username"));
+            Assertions.assertEquals(userId, ((Number) jwt.getClaim("userId")).longValue());
+            Assertions.assertEquals(userId % 2 == 1, authorities.contains("ROLE_ADMIN"));
+            Assertions.assertTrue(authorities.contains("ROLE_CLIENT"));
+        }
+    }
+
+    private static long userId(int login) {
+        return FIRST_USER_ID + login % USERS;
+    }
+
+    private static String email(long userId) {
+        return "user" + userId + "@gmail.com";
+    }
+}
@@ -1,18 +1,27 @@
 package com.devsuperior.dscommerce.controllers.it;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import com.devsuperior.dscommerce.dto.UserRolesDTO;
+import com.devsuperior.dscommerce.services.UserService;
 import com.devsuperior.dscommerce.utils.TokenUtil;
 
 @SpringBootTest
@@ -25,6 +34,9 @@ public class UserControllerIT {
 	@Autowired
 	private TokenUtil tokenUtil;
 	
+	@Autowired
+	private UserService userService;
+	
 	private String clientUsername, clientPassword, adminUsername, adminPassword;
 	private String clientToken, adminToken, invalidToken;
 	
@@ -85,4 +97,62 @@ public class UserControllerIT {
 		
 		result.andExpect(status().isUnauthorized());
 	}
+	
+	// Sin transaccion de test: el desalojo de la cache de login corre al confirmar el cambio de roles
+	@Test
+	public void updateRolesShouldBeSeenByNextLoginWhenAdminLogged() throws Exception {
+		
+		// El login de setUp ya dejo a maria en la cache con su rol original
+		Assertions.assertEquals(Set.of("ROLE_CLIENT"), authorities(clientUsername));
+		try {
+			ResultActions result = 
+					mockMvc.perform(put("/users/{id}/roles", 1L)
+						.header("Authorization", "Bearer " + adminToken)
+						.content("{\"roles\":[\"ROLE_CLIENT\",\"ROLE_ADMIN\"]}")
+						.contentType(MediaType.APPLICATION_JSON)
+						.accept(MediaType.APPLICATION_JSON));
+			
+			result.andExpect(status().isOk());
+			result.andExpect(jsonPath("$.roles.length()").value(2));
+			Assertions.assertEquals(Set.of("ROLE_CLIENT", "ROLE_ADMIN"), authorities(clientUsername));
+		}
+		finally {
+			userService.updateRoles(1L, new UserRolesDTO(List.of("ROLE_CLIENT")));
+		}
+		Assertions.assertEquals(Set.of("ROLE_CLIENT"), authorities(clientUsername));
+	}
+	
+	@Test
+	public void updateRolesShouldReturnUnprocessableEntityWhenRoleDoesNotExist() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(put("/users/{id}/roles", 1L)
+					.header("Authorization", "Bearer " + adminToken)
+					.content("{\"roles\":[\"ROLE_ROOT\"]}")
+					.contentType(MediaType.APPLICATION_JSON)
+					.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isUnprocessableEntity());
+		result.andExpect(jsonPath("$.errors[0].fieldName").value("roles"));
+		Assertions.assertEquals(Set.of("ROLE_CLIENT"), authorities(clientUsername));
+	}
+	
+	@Test
+	public void updateRolesShouldReturnForbiddenWhenClientLogged() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(put("/users/{id}/roles", 1L)
+					.header("Authorization", "Bearer " + clientToken)
+					.content("{\"roles\":[\"ROLE_ADMIN\"]}")
+					.contentType(MediaType.APPLICATION_JSON)
+					.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isForbidden());
+	}
+	
+	private Set<String> authorities(String username) {
+		return userService.loadUserByUsername(username).getAuthorities().stream()
+				.map(GrantedAuthority::getAuthority)
+				.collect(Collectors.toSet());
+	}
 }
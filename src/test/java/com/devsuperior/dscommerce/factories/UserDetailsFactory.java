@@ -11,20 +11,21 @@ public class UserDetailsFactory {
     public static List<UserDetailsProjection> createRoleClientUserDetails(String username) {
 
         List<UserDetailsProjection> list = new ArrayList<>();
-        list.add(new UserDetailsImpl(username, "123", 1L, "ROLE_CLIENT"));
+        list.add(new UserDetailsImpl(1L, username, "123", 1L, "ROLE_CLIENT"));
         return list;
     }
 
     public static List<UserDetailsProjection> createRoleAdminUserDetails(String username) {
 
         List<UserDetailsProjection> list = new ArrayList<>();
-        list.add(new UserDetailsImpl(username, "123", 2L, "ROLE_ADMIN"));
+        list.add(new UserDetailsImpl(1L, username, "123", 2L, "ROLE_ADMIN"));
         return list;
     }
 }
 
 class UserDetailsImpl implements UserDetailsProjection {
 
+    private Long userId;
     private String username;
     private String password;
     private Long roleId;
@@ -34,13 +35,19 @@ class UserDetailsImpl implements UserDetailsProjection {
 
     }
 
-    public UserDetailsImpl(String username, String password, Long roleId, String authority) {
+    public UserDetailsImpl(Long userId, String username, String password, Long roleId, String authority) {
+        this.userId = userId;
         this.username =  username;
         this.password = password;
         this.roleId = roleId;
         this.authority = authority;
     }
 
+    @Override
+    public Long getUserId() {
+        return userId;
+    }
+
     @Override
     public String getUsername() {
         return username;
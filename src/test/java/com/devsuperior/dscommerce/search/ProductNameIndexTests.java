@@ -0,0 +1,151 @@
+package com.devsuperior.dscommerce.search;
+
+import com.devsuperior.dscommerce.projections.ProductNameProjection;
+import com.devsuperior.dscommerce.repositories.ProductRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+public class ProductNameIndexTests {
+
+    @InjectMocks
+    private ProductNameIndex productNameIndex;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setup() {
+        List<ProductNameProjection> products = List.of(
+                projection(1L, "The Lord of the Rings"),
+                projection(2L, "Smart TV"),
+                projection(3L, "Macbook Pro"),
+                projection(4L, "PC Gamer"),
+                projection(5L, "PC Gamer Ex"));
+
+        Mockito.when(productRepository.searchIdAndName()).thenReturn(products);
+
+        productNameIndex.rebuild();
+    }
+
+    @Test
+    void supportsShouldReturnFalseWhenTermIsShorterThanTrigram() {
+        Assertions.assertFalse(productNameIndex.supports(""));
+        Assertions.assertFalse(productNameIndex.supports("tv"));
+        Assertions.assertTrue(productNameIndex.supports("pro"));
+    }
+
+    @Test
+    void searchShouldIgnoreCaseWhenTermMatches() {
+        List<Long> result = productNameIndex.search("gAmEr", Sort.unsorted(), 0, 10);
+
+        Assertions.assertEquals(List.of(4L, 5L), result);
+    }
+
+    @Test
+    void searchShouldReturnEmptyWhenNoNameContainsTerm() {
+        List<Long> result = productNameIndex.search("playstation", Sort.unsorted(), 0, 10);
+
+        Assertions.assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void searchShouldNotReturnFalsePositivesWhenAllTrigramsMatch() {
+        productNameIndex.put(6L, "ABC BCD");
+
+        List<Long> result = productNameIndex.search("ABCD", Sort.unsorted(), 0, 10);
+
+        Assertions.assertTrue(result.isEmpty());
+        Assertions.assertEquals(0, productNameIndex.count("ABCD"));
+    }
+
+    @Test
+    void searchShouldReturnOnlyRequestedPage() {
+        Assertions.assertEquals(List.of(5L), productNameIndex.search("gamer", Sort.unsorted(), 1, 1));
+        Assertions.assertEquals(List.of(5L), productNameIndex.search("gamer", Sort.by(Sort.Direction.DESC, "id"), 0, 1));
+        Assertions.assertTrue(productNameIndex.search("gamer", Sort.unsorted(), 2, 10).isEmpty());
+    }
+
+    @Test
+    void searchShouldOrderByRawNameWhenSortedByName() {
+        // En mayusculas quedaria "PC GAMER ALPHA" antes que "PC GAMER EX"; la base compara el nombre tal cual
+        productNameIndex.put(6L, "PC Gamer alpha");
+
+        Assertions.assertEquals(List.of(4L, 5L, 6L), productNameIndex.search("gamer", Sort.by("name"), 0, 10));
+        Assertions.assertEquals(List.of(6L, 5L, 4L),
+                productNameIndex.search("gamer", Sort.by(Sort.Direction.DESC, "name"), 0, 10));
+    }
+
+    @Test
+    void searchShouldOrderByNameWhenFewCandidatesInLargeCatalog() {
+        for (long id = 10; id < 100; id++) {
+            productNameIndex.put(id, "Item " + id);
+        }
+        productNameIndex.put(6L, "PC Gamer alpha");
+
+        Assertions.assertEquals(List.of(4L, 5L, 6L), productNameIndex.search("gamer", Sort.by("name", "id"), 0, 10));
+        Assertions.assertEquals(List.of(5L), productNameIndex.search("gamer", Sort.by("name"), 1, 1));
+    }
+
+    @Test
+    void countShouldReturnNumberOfMatches() {
+        Assertions.assertEquals(2, productNameIndex.count("gamer"));
+        Assertions.assertEquals(1, productNameIndex.count("lord"));
+    }
+
+    @Test
+    void putShouldReplaceNameWhenIdExists() {
+        productNameIndex.put(3L, "Macbook Air");
+
+        Assertions.assertTrue(productNameIndex.search("pro", Sort.unsorted(), 0, 10).isEmpty());
+        Assertions.assertEquals(List.of(3L), productNameIndex.search("air", Sort.unsorted(), 0, 10));
+        Assertions.assertEquals(List.of(3L), productNameIndex.search("mac", Sort.by("name"), 0, 10));
+        Assertions.assertEquals(5, productNameIndex.size());
+    }
+
+    @Test
+    void deleteShouldRemoveIdFromResults() {
+        productNameIndex.delete(4L);
+
+        Assertions.assertEquals(List.of(5L), productNameIndex.search("gamer", Sort.unsorted(), 0, 10));
+        Assertions.assertEquals(List.of(5L), productNameIndex.search("gamer", Sort.by("name"), 0, 10));
+        Assertions.assertEquals(4, productNameIndex.size());
+    }
+
+    @Test
+    void estimateShouldReturnUpperBoundOfMatches() {
+        Assertions.assertEquals(5, productNameIndex.estimate(""));
+        Assertions.assertEquals(2, productNameIndex.estimate("gamer"));
+        Assertions.assertEquals(0, productNameIndex.estimate("playstation"));
+    }
+
+    @Test
+    void supportsShouldReturnFalseWhenSortedByOtherProperty() {
+        Assertions.assertTrue(productNameIndex.supports(Sort.by("name", "id")));
+        Assertions.assertFalse(productNameIndex.supports(Sort.by(Sort.Order.asc("name"), Sort.Order.desc("id"))));
+        Assertions.assertFalse(productNameIndex.supports(Sort.by("price")));
+    }
+
+    private static ProductNameProjection projection(Long id, String name) {
+        return new ProductNameProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
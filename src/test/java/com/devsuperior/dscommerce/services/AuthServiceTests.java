@@ -3,6 +3,7 @@ package com.devsuperior.dscommerce.services;
 import com.devsuperior.dscommerce.entities.User;
 import com.devsuperior.dscommerce.factories.UserFactory;
 import com.devsuperior.dscommerce.services.exceptions.ForbiddenException;
+import com.devsuperior.dscommerce.utils.CustomUserUtil;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,7 +20,7 @@ public class AuthServiceTests {
     private AuthService authService;
 
     @Mock
-    private UserService userService;
+    private CustomUserUtil customUserUtil;
 
     private User admin,
             selfClient,
@@ -37,22 +38,25 @@ public class AuthServiceTests {
 
     @Test
     void validateSelfOrAdminShouldDoNothingWhenAdminLogged() {
-        Mockito.doReturn(admin).when(userService).authenticated();
+        Mockito.when(customUserUtil.hasLoggedRole("ROLE_ADMIN")).thenReturn(true);
+        Mockito.when(customUserUtil.getLoggedUserId()).thenReturn(admin.getId());
 
-        Assertions.assertDoesNotThrow(() -> authService.validateSelfOrAdmin(admin.getId()));
+        Assertions.assertDoesNotThrow(() -> authService.validateSelfOrAdmin(otherClient));
     }
 
     @Test
     void validateSelfOrAdminShouldDoNothingWhenSelfLogged() {
-        Mockito.doReturn(selfClient).when(userService).authenticated();
+        Mockito.when(customUserUtil.hasLoggedRole("ROLE_ADMIN")).thenReturn(false);
+        Mockito.when(customUserUtil.getLoggedUserId()).thenReturn(selfClient.getId());
 
-        Assertions.assertDoesNotThrow(() -> authService.validateSelfOrAdmin(selfClient.getId()));
+        Assertions.assertDoesNotThrow(() -> authService.validateSelfOrAdmin(selfClient));
     }
 
     @Test
     void validateSelfOrAdminShouldThrowForbiddenExceptionWhenOtherClientLogged() {
-        Mockito.doReturn(selfClient).when(userService).authenticated();
+        Mockito.when(customUserUtil.hasLoggedRole("ROLE_ADMIN")).thenReturn(false);
+        Mockito.when(customUserUtil.getLoggedUserId()).thenReturn(selfClient.getId());
 
-        Assertions.assertThrows(ForbiddenException.class, () -> authService.validateSelfOrAdmin(otherClient.getId()));
+        Assertions.assertThrows(ForbiddenException.class, () -> authService.validateSelfOrAdmin(otherClient));
     }
 }
@@ -1,9 +1,11 @@
 package com.devsuperior.dscommerce.services;
 
+import com.devsuperior.dscommerce.cache.CategorySnapshot;
 import com.devsuperior.dscommerce.dto.CategoryDTO;
 import com.devsuperior.dscommerce.entities.Category;
 import com.devsuperior.dscommerce.factories.CategoryFactory;
 import com.devsuperior.dscommerce.repositories.CategoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +13,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.ArrayList;
@@ -25,6 +28,9 @@ public class CategoryServiceTests {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     private Category category;
     private List<Category> categoryList;
 
@@ -45,4 +51,26 @@ public class CategoryServiceTests {
         Assertions.assertEquals(categoryDTOList.getFirst().getName(), category.getName());
         Assertions.assertEquals(categoryDTOList.getFirst().getId(), category.getId());
     }
+
+    @Test
+    void findSnapshotShouldQueryRepositoryOnceWhenCalledTwice() {
+        CategorySnapshot first = categoryService.findSnapshot();
+        CategorySnapshot second = categoryService.findSnapshot();
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, first.getCategories().size());
+        Mockito.verify(categoryRepository, Mockito.times(1)).findAll();
+    }
+
+    @Test
+    void refreshSnapshotShouldReplaceSnapshotWhenCategoriesChange() {
+        CategorySnapshot first = categoryService.findSnapshot();
+        categoryList.add(CategoryFactory.createCategory(2L, "Home products"));
+
+        categoryService.refreshSnapshot();
+        CategorySnapshot second = categoryService.findSnapshot();
+
+        Assertions.assertEquals(2, second.getCategories().size());
+        Assertions.assertNotEquals(first.getETag(), second.getETag());
+    }
 }
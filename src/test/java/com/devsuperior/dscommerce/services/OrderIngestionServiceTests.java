@@ -0,0 +1,174 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.OrderDTO;
+import com.devsuperior.dscommerce.entities.Order;
+import com.devsuperior.dscommerce.factories.OrderFactory;
+import com.devsuperior.dscommerce.services.exceptions.DatabaseException;
+import com.devsuperior.dscommerce.services.exceptions.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class OrderIngestionServiceTests {
+
+    private OrderIngestionService orderIngestionService;
+
+    private OrderService orderService;
+
+    private ExecutorService executor;
+
+    private List<Integer> batchSizes;
+
+    private OrderDTO dto;
+
+    @BeforeEach
+    void setUp() {
+        orderService = Mockito.mock(OrderService.class);
+        executor = Executors.newFixedThreadPool(4);
+        batchSizes = Collections.synchronizedList(new ArrayList<>());
+        dto = new OrderDTO();
+
+        Mockito.when(orderService.prepare(ArgumentMatchers.any())).thenAnswer(invocation -> OrderFactory.createOrder());
+        Mockito.when(orderService.prepare(ArgumentMatchers.any(), ArgumentMatchers.any())).thenAnswer(invocation -> OrderFactory.createOrder());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        if (orderIngestionService != null) {
+            orderIngestionService.stop();
+        }
+    }
+
+    @Test
+    public void insertShouldDelegateToOrderServiceWhenDisabled() {
+        OrderDTO created = new OrderDTO(OrderFactory.createOrder());
+        Mockito.when(orderService.insert(dto)).thenReturn(created);
+        start(false, 4, 0L, 5000L);
+
+        OrderDTO result = orderIngestionService.insert(dto);
+
+        Assertions.assertSame(created, result);
+        Mockito.verify(orderService, Mockito.never()).prepare(ArgumentMatchers.any());
+        Mockito.verify(orderService, Mockito.never()).insertAll(ArgumentMatchers.any());
+    }
+
+    @Test
+    public void insertShouldCommitConcurrentOrdersInOneBatchWhenEnabled() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            batchSizes.add(orders.size());
+            return null;
+        }).when(orderService).insertAll(ArgumentMatchers.any());
+        start(true, 4, 2000L, 5000L);
+
+        List<Future<OrderDTO>> results = submit(4);
+
+        for (Future<OrderDTO> result : results) {
+            Assertions.assertNotNull(result.get(5, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(List.of(4), batchSizes);
+    }
+
+    @Test
+    public void insertShouldRetryOrdersOneByOneWhenBatchFails() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            batchSizes.add(orders.size());
+            if (orders.size() > 1) {
+                throw new DatabaseException("Falla en la integridad referencial");
+            }
+            return null;
+        }).when(orderService).insertAll(ArgumentMatchers.any());
+        start(true, 2, 2000L, 5000L);
+
+        List<Future<OrderDTO>> results = submit(2);
+
+        for (Future<OrderDTO> result : results) {
+            Assertions.assertNotNull(result.get(5, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(List.of(2, 1, 1), batchSizes);
+        // Cada orden del lote revertido se vuelve a armar desde su pedido antes del reintento
+        Mockito.verify(orderService, Mockito.times(2)).prepare(ArgumentMatchers.eq(dto), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void insertShouldThrowExceptionWhenOrderCannotBeWritten() {
+        Mockito.doThrow(new DatabaseException("Falla en la integridad referencial"))
+                .when(orderService).insertAll(ArgumentMatchers.any());
+        start(true, 1, 0L, 5000L);
+
+        Assertions.assertThrows(DatabaseException.class, () -> {
+            orderIngestionService.insert(dto);
+        });
+    }
+
+    @Test
+    public void insertShouldThrowServiceUnavailableExceptionAndSkipOrderWhenWriterDoesNotTakeItInTime() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            batchSizes.add(orders.size());
+            writing.countDown();
+            Assertions.assertTrue(release.await(5, TimeUnit.SECONDS));
+            return null;
+        }).when(orderService).insertAll(ArgumentMatchers.any());
+        start(true, 1, 0L, 100L);
+
+        // La primera orden ocupa al escritor; la segunda vence su espera en la cola
+        Future<OrderDTO> first = executor.submit(() -> orderIngestionService.insert(dto));
+        Assertions.assertTrue(writing.await(5, TimeUnit.SECONDS));
+        Assertions.assertThrows(ServiceUnavailableException.class, () -> {
+            orderIngestionService.insert(dto);
+        });
+        release.countDown();
+
+        Assertions.assertNotNull(first.get(5, TimeUnit.SECONDS));
+        orderIngestionService.stop();
+        Assertions.assertEquals(List.of(1), batchSizes);
+    }
+
+    @Test
+    public void insertShouldKeepWriterRunningWhenBatchThrowsError() throws Exception {
+        Mockito.doThrow(new NoClassDefFoundError("Order"))
+                .doNothing()
+                .when(orderService).insertAll(ArgumentMatchers.any());
+        start(true, 1, 0L, 5000L);
+
+        Assertions.assertThrows(NoClassDefFoundError.class, () -> {
+            orderIngestionService.insert(dto);
+        });
+
+        Assertions.assertNotNull(orderIngestionService.insert(dto));
+    }
+
+    private void start(boolean enabled, int batchSize, long lingerMs, long timeoutMs) {
+        orderIngestionService = new OrderIngestionService(enabled, batchSize, lingerMs, 100, timeoutMs);
+        ReflectionTestUtils.setField(orderIngestionService, "orderService", orderService);
+        ReflectionTestUtils.setField(orderIngestionService, "executorBuilder", new ThreadPoolTaskExecutorBuilder());
+        orderIngestionService.start();
+    }
+
+    private List<Future<OrderDTO>> submit(int count) {
+        List<Future<OrderDTO>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(executor.submit(() -> orderIngestionService.insert(dto)));
+        }
+        return results;
+    }
+}
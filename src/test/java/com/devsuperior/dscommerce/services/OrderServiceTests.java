@@ -8,23 +8,27 @@ import com.devsuperior.dscommerce.entities.User;
 import com.devsuperior.dscommerce.factories.OrderFactory;
 import com.devsuperior.dscommerce.factories.ProductFactory;
 import com.devsuperior.dscommerce.factories.UserFactory;
-import com.devsuperior.dscommerce.repositories.OrderItemRepository;
 import com.devsuperior.dscommerce.repositories.OrderRepository;
 import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.repositories.UserRepository;
+import com.devsuperior.dscommerce.services.exceptions.BadRequestException;
 import com.devsuperior.dscommerce.services.exceptions.ForbiddenException;
+import com.devsuperior.dscommerce.services.exceptions.InvalidDataException;
 import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
-import jakarta.persistence.EntityNotFoundException;
+import com.devsuperior.dscommerce.services.exceptions.UnauthorizedException;
+import com.devsuperior.dscommerce.utils.CustomUserUtil;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
-import java.util.ArrayList;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 @ExtendWith(SpringExtension.class)
@@ -43,10 +47,10 @@ public class OrderServiceTests {
     private ProductRepository productRepository;
 
     @Mock
-    private OrderItemRepository orderItemRepository;
+    private UserRepository userRepository;
 
     @Mock
-    private UserService userService;
+    private CustomUserUtil customUserUtil;
 
     private Order order;
 
@@ -78,15 +82,19 @@ public class OrderServiceTests {
         userClient = UserFactory.createRoleClientUser("user@ds.com");
         userAdmin = UserFactory.createRoleAdminUser("admin@ds.com");
 
-        Mockito.when(orderRepository.findById(existingOrderId)).thenReturn(Optional.of(order));
-        Mockito.when(orderRepository.findById(nonExistingOrderId)).thenReturn(Optional.empty());
+        Mockito.when(orderRepository.searchDetailsById(existingOrderId)).thenReturn(Optional.of(order));
+        Mockito.when(orderRepository.searchDetailsById(nonExistingOrderId)).thenReturn(Optional.empty());
 
-        Mockito.when(productRepository.getReferenceById(existingProductId)).thenReturn(product);
-        Mockito.when(productRepository.getReferenceById(nonExistingProductId)).thenThrow(EntityNotFoundException.class);
+        Mockito.when(productRepository.findAllById(Mockito.any())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.contains(existingProductId) ? List.of(product) : List.of();
+        });
 
         Mockito.when(orderRepository.save(Mockito.any())).thenReturn(order);
+        Mockito.when(productRepository.decreaseStock(Mockito.any(), Mockito.any())).thenReturn(1);
+
+        Mockito.when(customUserUtil.getLoggedUserId()).thenReturn(1L);
 
-        Mockito.when(orderItemRepository.saveAll(Mockito.any())).thenReturn(new ArrayList<>(order.getItems()));
     }
 
     @Test
@@ -122,7 +130,7 @@ public class OrderServiceTests {
 
     @Test
     void insertShouldReturnOrderDTOWhenClientLogged() {
-        Mockito.when(userService.authenticated()).thenReturn(userClient);
+        Mockito.when(userRepository.getReferenceById(1L)).thenReturn(userClient);
 
         OrderItem orderItem = new OrderItem(order, product, 2, 100.0);
         order.getItems().add(orderItem);
@@ -138,7 +146,7 @@ public class OrderServiceTests {
 
     @Test
     void insertShouldReturnOrderDTOWhenAdminLogged() {
-        Mockito.when(userService.authenticated()).thenReturn(userAdmin);
+        Mockito.when(userRepository.getReferenceById(1L)).thenReturn(userAdmin);
 
         OrderDTO result = orderService.insert(orderDTO);
 
@@ -148,20 +156,85 @@ public class OrderServiceTests {
     }
 
     @Test
-    void insertShouldThrowUsernameNotFoundExceptionWhenUserNotLogged() {
-        Mockito.doThrow(UsernameNotFoundException.class).when(userService).authenticated();
+    void insertShouldThrowUnauthorizedExceptionWhenUserNotLogged() {
+        Mockito.doThrow(UnauthorizedException.class).when(customUserUtil).getLoggedUserId();
 
         order.setClient(new User());
         orderDTO = new OrderDTO(order);
 
-        Assertions.assertThrows(UsernameNotFoundException.class, () -> {
+        Assertions.assertThrows(UnauthorizedException.class, () -> {
            orderService.insert(orderDTO);
         });
+        Mockito.verify(orderRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void insertShouldLoadAllProductsInSingleQuery() {
+        Mockito.when(userRepository.getReferenceById(1L)).thenReturn(userClient);
+
+        order.getItems().add(new OrderItem(order, product, 2, 100.0));
+        orderDTO = new OrderDTO(order);
+
+        orderService.insert(orderDTO);
+
+        Mockito.verify(productRepository, Mockito.times(1)).findAllById(Mockito.any());
+        Mockito.verify(productRepository, Mockito.never()).getReferenceById(Mockito.any());
+    }
+
+    @Test
+    void insertShouldStoreTotalAndItemCountWhenOrderIsCreated() {
+        Mockito.when(userRepository.getReferenceById(1L)).thenReturn(userClient);
+
+        order.getItems().add(new OrderItem(order, product, 3, 100.0));
+        orderDTO = new OrderDTO(order);
+
+        orderService.insert(orderDTO);
+
+        ArgumentCaptor<Order> captor = ArgumentCaptor.forClass(Order.class);
+        Mockito.verify(orderRepository).save(captor.capture());
+        Assertions.assertEquals(product.getPrice() * 3, captor.getValue().getTotal());
+        Assertions.assertEquals(3, captor.getValue().getItemCount());
+    }
+
+    @Test
+    void insertShouldThrowInvalidDataExceptionWhenStockIsNotEnough() {
+        Mockito.when(userRepository.getReferenceById(1L)).thenReturn(userClient);
+        Mockito.when(productRepository.decreaseStock(existingProductId, 2)).thenReturn(0);
+
+        order.getItems().add(new OrderItem(order, product, 2, 100.0));
+        orderDTO = new OrderDTO(order);
+
+        InvalidDataException exception = Assertions.assertThrows(InvalidDataException.class, () -> {
+            orderService.insert(orderDTO);
+        });
+        Assertions.assertEquals("items", exception.getErrors().getFirst().getFieldName());
+        Mockito.verify(orderRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void insertShouldThrowInvalidDataExceptionAndNotReserveStockWhenQuantityIsNotPositive() {
+        Mockito.when(userRepository.getReferenceById(1L)).thenReturn(userClient);
+
+        order.getItems().add(new OrderItem(order, product, -500, 100.0));
+        orderDTO = new OrderDTO(order);
+
+        InvalidDataException exception = Assertions.assertThrows(InvalidDataException.class, () -> {
+            orderService.insert(orderDTO);
+        });
+        Assertions.assertEquals("items[0].quantity", exception.getErrors().getFirst().getFieldName());
+        Mockito.verify(productRepository, Mockito.never()).decreaseStock(Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    void findDailyRevenueShouldThrowBadRequestExceptionWhenStartIsAfterEnd() {
+        Assertions.assertThrows(BadRequestException.class, () -> {
+            orderService.findDailyRevenue(LocalDate.of(2022, 8, 1), LocalDate.of(2022, 7, 1));
+        });
     }
 
     @Test
-    void insertShouldThrowEntityNotFoundExceptionWhenOrderProductIdDoesNotExist() {
-        Mockito.when(userService.authenticated()).thenReturn(userClient);
+    void insertShouldThrowInvalidDataExceptionWhenOrderProductIdDoesNotExist() {
+        Mockito.when(userRepository.getReferenceById(1L)).thenReturn(userClient);
 
         product.setId(nonExistingProductId);
 
@@ -170,9 +243,10 @@ public class OrderServiceTests {
 
         orderDTO = new OrderDTO(order);
 
-        Assertions.assertThrows(EntityNotFoundException.class, () -> {
+        InvalidDataException exception = Assertions.assertThrows(InvalidDataException.class, () -> {
             orderService.insert(orderDTO);
         });
+        Assertions.assertEquals("items[0].productId", exception.getErrors().getFirst().getFieldName());
     }
 }
 
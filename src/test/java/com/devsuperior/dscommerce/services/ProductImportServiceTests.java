@@ -0,0 +1,125 @@
+package com.devsuperior.dscommerce.services;
+
+import com.devsuperior.dscommerce.dto.ImportResultDTO;
+import com.devsuperior.dscommerce.dto.ProductDTO;
+import com.devsuperior.dscommerce.entities.Product;
+import com.devsuperior.dscommerce.factories.ProductFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+public class ProductImportServiceTests {
+
+    @InjectMocks
+    private ProductImportService productImportService;
+
+    @Mock
+    private ProductService productService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private String validRow, invalidRow;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Product product = ProductFactory.createProductCategory();
+        validRow = objectMapper.writeValueAsString(new ProductDTO(product));
+        product.setPrice(-1.0);
+        invalidRow = objectMapper.writeValueAsString(new ProductDTO(product));
+    }
+
+    @Test
+    public void importProductsShouldInsertValidRowsInOneChunkAndReportInvalidRows() throws Exception {
+        // El servicio reutiliza la lista del bloque, asi que el tamanio se registra al momento de la llamada
+        List<Integer> chunkSizes = new ArrayList<>();
+        Mockito.doAnswer(invocation -> chunkSizes.add(invocation.<List<ProductDTO>>getArgument(0).size()))
+                .when(productService).insertAll(Mockito.any());
+
+        ImportResultDTO result = productImportService.importProducts(body(validRow + "\n" + invalidRow + "\n" + validRow));
+
+        Assertions.assertEquals(2, result.getImported());
+        Assertions.assertEquals(1, result.getFailed());
+        Assertions.assertEquals(2L, result.getErrors().get(0).getRow());
+        Assertions.assertEquals("price", result.getErrors().get(0).getErrors().get(0).getFieldName());
+        Assertions.assertEquals(List.of(2), chunkSizes);
+    }
+
+    @Test
+    public void importProductsShouldRetryRowByRowWhenChunkFails() throws Exception {
+        Mockito.doThrow(DataIntegrityViolationException.class).when(productService).insertAll(Mockito.any());
+        Mockito.when(productService.insert(Mockito.any()))
+                .thenReturn(new ProductDTO())
+                .thenThrow(DataIntegrityViolationException.class);
+
+        ImportResultDTO result = productImportService.importProducts(body("[" + validRow + "," + validRow + "]"));
+
+        Assertions.assertEquals(1, result.getImported());
+        Assertions.assertEquals(1, result.getFailed());
+        Assertions.assertEquals(2L, result.getErrors().get(0).getRow());
+    }
+
+    @Test
+    public void importProductsShouldReportRowWhenCategoryHasNoId() throws Exception {
+        Product product = ProductFactory.createProductCategory();
+        product.getCategories().iterator().next().setId(null);
+        String rowWithoutCategoryId = objectMapper.writeValueAsString(new ProductDTO(product));
+
+        ImportResultDTO result = productImportService.importProducts(body(validRow + "\n" + rowWithoutCategoryId));
+
+        Assertions.assertEquals(1, result.getImported());
+        Assertions.assertEquals(1, result.getFailed());
+        Assertions.assertEquals(2L, result.getErrors().get(0).getRow());
+        Assertions.assertEquals("categories[0].id", result.getErrors().get(0).getErrors().get(0).getFieldName());
+    }
+
+    @Test
+    public void importProductsShouldReportRowAndContinueWhenRowFailsWithOtherDataAccessException() throws Exception {
+        Mockito.doThrow(InvalidDataAccessApiUsageException.class).when(productService).insertAll(Mockito.any());
+        Mockito.when(productService.insert(Mockito.any()))
+                .thenThrow(InvalidDataAccessApiUsageException.class)
+                .thenReturn(new ProductDTO());
+
+        ImportResultDTO result = productImportService.importProducts(body("[" + validRow + "," + validRow + "]"));
+
+        Assertions.assertEquals(1, result.getImported());
+        Assertions.assertEquals(1, result.getFailed());
+        Assertions.assertEquals(1L, result.getErrors().get(0).getRow());
+        Assertions.assertEquals("body", result.getErrors().get(0).getErrors().get(0).getFieldName());
+    }
+
+    @Test
+    public void importProductsShouldStopAndReportRowWhenJsonIsMalformed() throws Exception {
+        ImportResultDTO result = productImportService.importProducts(body(validRow + "\n{\"name\": "));
+
+        Assertions.assertEquals(1, result.getImported());
+        Assertions.assertEquals(1, result.getFailed());
+        Assertions.assertEquals(2L, result.getErrors().get(0).getRow());
+        Assertions.assertEquals("body", result.getErrors().get(0).getErrors().get(0).getFieldName());
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,10 +1,13 @@
 package com.devsuperior.dscommerce.services;
 
+import com.devsuperior.dscommerce.cache.ProductCountCache;
+import com.devsuperior.dscommerce.cache.ProductDetailCache;
 import com.devsuperior.dscommerce.dto.ProductDTO;
 import com.devsuperior.dscommerce.dto.ProductMinDTO;
 import com.devsuperior.dscommerce.entities.Product;
 import com.devsuperior.dscommerce.factories.ProductFactory;
 import com.devsuperior.dscommerce.repositories.ProductRepository;
+import com.devsuperior.dscommerce.search.ProductNameIndex;
 import com.devsuperior.dscommerce.services.exceptions.DatabaseException;
 import com.devsuperior.dscommerce.services.exceptions.ResourceNotFoundException;
 import jakarta.persistence.EntityNotFoundException;
@@ -15,11 +18,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.List;
@@ -34,6 +41,15 @@ public class ProductServiceTests {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductNameIndex productNameIndex;
+
+    @Spy
+    private ProductDetailCache productDetailCache = new ProductDetailCache(100L, 600L);
+
+    @Spy
+    private ProductCountCache productCountCache = new ProductCountCache(100L, 600L);
+
     private Long existingProductId,
             nonExistingProductId,
             existingProductIdIntegrityViolation;
@@ -52,6 +68,7 @@ public class ProductServiceTests {
         existingProductId = 1L;
         nonExistingProductId = 2L;
         existingProductIdIntegrityViolation = 3L;
+        name = "Macbook";
 
         product = ProductFactory.createProductCategory();
 
@@ -59,14 +76,24 @@ public class ProductServiceTests {
 
         productPage = new PageImpl<>(List.of(product));
 
-        Mockito.when(productRepository.findById(existingProductId)).thenReturn(Optional.of(product));
-        Mockito.when(productRepository.findById(nonExistingProductId)).thenReturn(Optional.empty());
+        Mockito.when(productRepository.searchByIdWithCategories(existingProductId)).thenReturn(Optional.of(product));
+        Mockito.when(productRepository.searchByIdWithCategories(nonExistingProductId)).thenReturn(Optional.empty());
 
         Mockito.when(productRepository.findProductsByName(Mockito.eq(name), Mockito.any(Pageable.class))).thenReturn(productPage);
 
-        Mockito.when(productRepository.searchByName(Mockito.eq(name), Mockito.any(Pageable.class))).thenReturn(productPage);
+
+        Mockito.when(productRepository.searchSliceByName(Mockito.eq(name), Mockito.any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(new ProductMinDTO(product))));
+
+        Mockito.when(productNameIndex.supports(name)).thenReturn(true);
+        Mockito.when(productNameIndex.supports(Mockito.any(Sort.class))).thenReturn(true);
+        Mockito.when(productNameIndex.supports(Sort.by("price"))).thenReturn(false);
+        Mockito.when(productNameIndex.search(Mockito.eq(name), Mockito.any(), Mockito.anyLong(), Mockito.anyInt()))
+                .thenReturn(List.of(existingProductId));
+        Mockito.when(productRepository.searchByIds(List.of(existingProductId))).thenReturn(List.of(new ProductMinDTO(product)));
 
         Mockito.when(productRepository.save(Mockito.any())).thenReturn(product);
+        Mockito.when(productRepository.saveAndFlush(Mockito.any())).thenReturn(product);
 
         Mockito.when(productRepository.getReferenceById(existingProductId)).thenReturn(product);
         Mockito.when(productRepository.getReferenceById(nonExistingProductId)).thenThrow(EntityNotFoundException.class);
@@ -89,6 +116,25 @@ public class ProductServiceTests {
         Assertions.assertEquals(result.getDescription(), product.getDescription());
     }
 
+    @Test
+    void findByIdShouldReturnCachedProductDTOWhenCalledTwice() {
+        ProductDTO first = productService.findById(existingProductId);
+        ProductDTO second = productService.findById(existingProductId);
+
+        Assertions.assertSame(first, second);
+        Mockito.verify(productRepository, Mockito.times(1)).searchByIdWithCategories(existingProductId);
+        Assertions.assertEquals(1L, productDetailCache.getStats().getHitCount());
+    }
+
+    @Test
+    void updateShouldInvalidateCachedProductDTOWhenIdExists() {
+        productService.findById(existingProductId);
+
+        productService.update(existingProductId, productDTO);
+
+        Assertions.assertNull(productDetailCache.getIfPresent(existingProductId));
+    }
+
     @Test
     void findByIdShouldThrowResourceNotFoundExceptionWhenIdDoesNotExists() {
         Assertions.assertThrows(ResourceNotFoundException.class, () -> {
@@ -102,8 +148,98 @@ public class ProductServiceTests {
         Page<ProductMinDTO> result = productService.findAll(name, pageable);
 
         Assertions.assertNotNull(result);
-        Assertions.assertEquals(1, result.getSize());
+        Assertions.assertEquals(1, result.getTotalElements());
         Assertions.assertEquals(result.iterator().next().getName(), product.getName());
+        Mockito.verify(productRepository, Mockito.never()).searchSliceByName(Mockito.any(), Mockito.any());
+        Mockito.verify(productRepository, Mockito.never()).countByName(Mockito.any());
+    }
+
+    @Test
+    void findAllShouldQueryDatabaseWithoutCountWhenSortIsNotSupportedByIndexAndPageIsNotFull() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("price"));
+        Page<ProductMinDTO> result = productService.findAll(name, pageable);
+
+        Assertions.assertEquals(1, result.getTotalElements());
+        Mockito.verify(productRepository, Mockito.times(1)).searchSliceByName(name, pageable);
+        Mockito.verify(productRepository, Mockito.never()).countByName(Mockito.any());
+    }
+
+    @Test
+    void findAllShouldQueryDatabaseWhenTermIsShorterThanTrigram() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Mockito.when(productRepository.searchSliceByName(Mockito.eq("tv"), Mockito.any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(new ProductMinDTO(product))));
+
+        Page<ProductMinDTO> result = productService.findAll("tv", pageable);
+
+        Assertions.assertEquals(1, result.getTotalElements());
+        Mockito.verify(productRepository, Mockito.times(1)).searchSliceByName("tv", pageable);
+        Mockito.verify(productNameIndex, Mockito.never()).search(Mockito.any(), Mockito.any(), Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    void findAllShouldCountWithIndexOnceWhenPageIsFull() {
+        Mockito.when(productNameIndex.count(Mockito.anyString())).thenReturn(5L);
+
+        Page<ProductMinDTO> first = productService.findAll(name, PageRequest.of(0, 1));
+        Page<ProductMinDTO> second = productService.findAll(name, PageRequest.of(0, 1, Sort.by("name")));
+
+        Assertions.assertEquals(5, first.getTotalElements());
+        Assertions.assertEquals(5, second.getTotalElements());
+        Mockito.verify(productNameIndex, Mockito.times(1)).count(Mockito.anyString());
+        Mockito.verify(productRepository, Mockito.never()).countByName(Mockito.any());
+    }
+
+    @Test
+    void findAllShouldCountOnceWhenSameTermIsPaged() {
+        Mockito.when(productRepository.countByName(Mockito.any())).thenReturn(5L);
+
+        Page<ProductMinDTO> first = productService.findAll(name, PageRequest.of(0, 1, Sort.by("price")));
+        Page<ProductMinDTO> second = productService.findAll(name, PageRequest.of(1, 1, Sort.by("price")));
+
+        Assertions.assertEquals(5, first.getTotalElements());
+        Assertions.assertEquals(5, second.getTotalElements());
+        Mockito.verify(productRepository, Mockito.times(1)).countByName(Mockito.any());
+    }
+
+    @Test
+    void insertShouldInvalidateCachedCounts() {
+        productCountCache.get(name, term -> 5L);
+
+        productService.insert(productDTO);
+
+        Assertions.assertNull(productCountCache.getIfPresent(name));
+    }
+
+    @Test
+    void findAllEstimatedShouldUseIndexEstimateWithoutCountWhenSortIsNotSupportedByIndex() {
+        Mockito.when(productNameIndex.estimate(name)).thenReturn(7);
+
+        Page<ProductMinDTO> result = productService.findAllEstimated(name, PageRequest.of(0, 1, Sort.by("price")));
+
+        Assertions.assertEquals(7, result.getTotalElements());
+        Mockito.verify(productRepository, Mockito.never()).countByName(Mockito.any());
+    }
+
+    @Test
+    void findAllSliceShouldReturnSliceWithoutQueryingDatabaseForCount() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Slice<ProductMinDTO> result = productService.findAllSlice(name, pageable);
+
+        Assertions.assertEquals(1, result.getNumberOfElements());
+        Assertions.assertFalse(result.hasNext());
+        Mockito.verify(productRepository, Mockito.never()).searchSliceByName(Mockito.any(), Mockito.any());
+        Mockito.verify(productNameIndex, Mockito.times(1)).search(name, Sort.unsorted(), 0L, 11);
+    }
+
+    @Test
+    void findAllSliceShouldQuerySliceWhenSortIsNotSupportedByIndex() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("price"));
+        Slice<ProductMinDTO> result = productService.findAllSlice(name, pageable);
+
+        Assertions.assertEquals(1, result.getNumberOfElements());
+        Mockito.verify(productRepository, Mockito.times(1)).searchSliceByName(name, pageable);
+        Mockito.verify(productRepository, Mockito.never()).countByName(Mockito.any());
     }
 
     @Test
@@ -148,6 +284,8 @@ public class ProductServiceTests {
         });
         Mockito.verify(productRepository, Mockito.times(1))
                 .deleteById(existingProductId);
+        Mockito.verify(productNameIndex, Mockito.times(1)).delete(existingProductId);
+        Mockito.verify(productDetailCache, Mockito.times(1)).invalidate(existingProductId);
     }
 
     @Test
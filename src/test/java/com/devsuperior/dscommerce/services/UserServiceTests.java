@@ -1,11 +1,16 @@
 package com.devsuperior.dscommerce.services;
 
+import com.devsuperior.dscommerce.cache.UserDetailsCache;
 import com.devsuperior.dscommerce.dto.UserDTO;
+import com.devsuperior.dscommerce.dto.UserRolesDTO;
+import com.devsuperior.dscommerce.entities.Role;
 import com.devsuperior.dscommerce.entities.User;
 import com.devsuperior.dscommerce.factories.UserDetailsFactory;
 import com.devsuperior.dscommerce.factories.UserFactory;
 import com.devsuperior.dscommerce.projections.UserDetailsProjection;
+import com.devsuperior.dscommerce.repositories.RoleRepository;
 import com.devsuperior.dscommerce.repositories.UserRepository;
+import com.devsuperior.dscommerce.services.exceptions.InvalidDataException;
 import com.devsuperior.dscommerce.utils.CustomUserUtil;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -32,9 +37,15 @@ public class UserServiceTests {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private RoleRepository roleRepository;
+
     @Mock
     private CustomUserUtil customUserUtil;
 
+    @Spy
+    private UserDetailsCache userDetailsCache = new UserDetailsCache(100L, 600L);
+
     private User userRoleClient;
 
     private List<UserDetailsProjection> roleClientUserDetails;
@@ -42,10 +53,15 @@ public class UserServiceTests {
     private String existingEmail,
                 nonExistingEmail;
 
+    private Long existingId,
+                nonExistingId;
+
     @BeforeEach
     void setup() {
         existingEmail = "ex@ds.com";
         nonExistingEmail = "non-ex@ds.com";
+        existingId = 1L;
+        nonExistingId = 1000L;
 
         userRoleClient = UserFactory.createRoleClientUser(existingEmail);
 
@@ -54,8 +70,8 @@ public class UserServiceTests {
         Mockito.when(userRepository.searchUserAndRolesByEmail(existingEmail)).thenReturn(roleClientUserDetails);
         Mockito.when(userRepository.searchUserAndRolesByEmail(nonExistingEmail)).thenReturn(List.of());
 
-        Mockito.when(userRepository.findByEmail(existingEmail)).thenReturn(Optional.of(userRoleClient));
-        Mockito.when(userRepository.findByEmail(nonExistingEmail)).thenReturn(Optional.empty());
+        Mockito.when(userRepository.findById(existingId)).thenReturn(Optional.of(userRoleClient));
+        Mockito.when(userRepository.findById(nonExistingId)).thenReturn(Optional.empty());
     }
 
     @Test
@@ -64,6 +80,27 @@ public class UserServiceTests {
 
         Assertions.assertNotNull(result);
         Assertions.assertEquals(result.getUsername(), existingEmail);
+        Assertions.assertEquals(existingId, ((User) result).getId());
+    }
+
+    @Test
+    void loadUserByUsernameShouldQueryOnceWhenCalledTwice() {
+        UserDetails first = userService.loadUserByUsername(existingEmail);
+        UserDetails second = userService.loadUserByUsername(existingEmail);
+
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals(first.getAuthorities(), second.getAuthorities());
+        Mockito.verify(userRepository, Mockito.times(1)).searchUserAndRolesByEmail(existingEmail);
+        Assertions.assertEquals(1L, userDetailsCache.getStats().getHitCount());
+    }
+
+    @Test
+    void loadUserByUsernameShouldQueryAgainWhenCacheIsInvalidated() {
+        userService.loadUserByUsername(existingEmail);
+        userDetailsCache.invalidateAll();
+        userService.loadUserByUsername(existingEmail);
+
+        Mockito.verify(userRepository, Mockito.times(2)).searchUserAndRolesByEmail(existingEmail);
     }
 
     @Test
@@ -77,17 +114,28 @@ public class UserServiceTests {
 
     @Test
     void authenticatedShouldReturnUserExists() {
-        Mockito.when(customUserUtil.getLoggedUsername()).thenReturn(existingEmail);
+        Mockito.when(customUserUtil.getLoggedUserId()).thenReturn(existingId);
 
         User user = userService.authenticated();
 
        Assertions.assertNotNull(user);
        Assertions.assertEquals(user.getUsername(), existingEmail);
+       Mockito.verify(userRepository, Mockito.times(1)).findById(existingId);
+       Mockito.verify(userRepository, Mockito.never()).findByEmail(Mockito.any());
+    }
+
+    @Test
+    void authenticatedShouldThrowUsernameNotFoundExceptionWhenUserIdDoesNotExist() {
+        Mockito.when(customUserUtil.getLoggedUserId()).thenReturn(nonExistingId);
+
+        Assertions.assertThrows(UsernameNotFoundException.class, () -> {
+            userService.authenticated();
+        });
     }
 
     @Test
     void authenticatedShouldThrowUsernameNotFoundExceptionWhenUserDoesNotExist() {
-        Mockito.when(customUserUtil.getLoggedUsername()).thenThrow(ClassCastException.class);
+        Mockito.when(customUserUtil.getLoggedUserId()).thenThrow(ClassCastException.class);
 
         Throwable exception = Assertions.assertThrows(UsernameNotFoundException.class, () -> {
             userService.authenticated();
@@ -115,4 +163,33 @@ public class UserServiceTests {
             userService.getMe();
         });
     }
+
+    @Test
+    void updateRolesShouldEvictOnlyThatEmailFromLoginCache() {
+        Mockito.when(userRepository.searchUserAndRolesByEmail(nonExistingEmail)).thenReturn(roleClientUserDetails);
+        Mockito.when(roleRepository.findByAuthorityIn(List.of("ROLE_ADMIN"))).thenReturn(List.of(new Role(2L, "ROLE_ADMIN")));
+        userService.loadUserByUsername(existingEmail);
+        userService.loadUserByUsername(nonExistingEmail);
+
+        UserDTO result = userService.updateRoles(existingId, new UserRolesDTO(List.of("ROLE_ADMIN")));
+        userService.loadUserByUsername(existingEmail);
+        userService.loadUserByUsername(nonExistingEmail);
+
+        Assertions.assertEquals(List.of("ROLE_ADMIN"), result.getRoles());
+        Mockito.verify(userRepository, Mockito.times(2)).searchUserAndRolesByEmail(existingEmail);
+        Mockito.verify(userRepository, Mockito.times(1)).searchUserAndRolesByEmail(nonExistingEmail);
+    }
+
+    @Test
+    void updateRolesShouldThrowInvalidDataExceptionAndKeepRolesWhenRoleDoesNotExist() {
+        Mockito.when(roleRepository.findByAuthorityIn(Mockito.any())).thenReturn(List.of());
+
+        InvalidDataException exception = Assertions.assertThrows(InvalidDataException.class, () -> {
+            userService.updateRoles(existingId, new UserRolesDTO(List.of("ROLE_ROOT")));
+        });
+
+        Assertions.assertEquals("roles", exception.getErrors().getFirst().getFieldName());
+        Assertions.assertEquals("ROLE_CLIENT", userRoleClient.getRoles().iterator().next().getAuthority());
+        Mockito.verify(userDetailsCache, Mockito.never()).evict(Mockito.any());
+    }
 }
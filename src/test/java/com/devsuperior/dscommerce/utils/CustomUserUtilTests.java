@@ -0,0 +1,50 @@
+package com.devsuperior.dscommerce.utils;
+
+import com.devsuperior.dscommerce.services.exceptions.UnauthorizedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+public class CustomUserUtilTests {
+
+    private final CustomUserUtil customUserUtil = new CustomUserUtil();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void getLoggedUserIdShouldReturnIdWhenTokenHasUserIdClaim() {
+        authenticate(Jwt.withTokenValue("token").header("alg", "none").claim("userId", 2L).build());
+
+        Assertions.assertEquals(2L, customUserUtil.getLoggedUserId());
+    }
+
+    @Test
+    public void getLoggedUserIdShouldThrowUnauthorizedExceptionWhenUserIdClaimIsMissing() {
+        authenticate(Jwt.withTokenValue("token").header("alg", "none").claim("username", "maria@gmail.com").build());
+
+        Assertions.assertThrows(UnauthorizedException.class, customUserUtil::getLoggedUserId);
+    }
+
+    @Test
+    public void getLoggedUserIdShouldThrowUnauthorizedExceptionWhenPrincipalIsNotJwt() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("maria@gmail.com", null));
+
+        Assertions.assertThrows(UnauthorizedException.class, customUserUtil::getLoggedUserId);
+    }
+
+    @Test
+    public void getLoggedUserIdShouldThrowUnauthorizedExceptionWhenNotAuthenticated() {
+        Assertions.assertThrows(UnauthorizedException.class, customUserUtil::getLoggedUserId);
+    }
+
+    private static void authenticate(Jwt jwt) {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+}